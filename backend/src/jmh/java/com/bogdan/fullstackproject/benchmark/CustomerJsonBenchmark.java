@@ -0,0 +1,59 @@
+package com.bogdan.fullstackproject.benchmark;
+
+import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Serializes the response body of GET /api/v1/customers with an ObjectMapper configured the way
+ * Spring Boot configures the application's one.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerJsonBenchmark {
+
+    @Param({"10", "1000"})
+    public int customers;
+
+    private ObjectWriter writer;
+
+    private List<CustomerDTO> body;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build()
+                .writerFor(new TypeReference<List<CustomerDTO>>() {});
+        body = IntStream.range(0, customers)
+                .mapToObj(i -> new CustomerDTO(i, "Customer " + i, "customer" + i + "@gmail.com",
+                        Gender.UNSELECTED, 20 + i % 50, List.of("ROLE_USER"), "customer" + i + "@gmail.com"))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(body);
+    }
+}
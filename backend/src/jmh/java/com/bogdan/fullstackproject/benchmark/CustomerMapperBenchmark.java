@@ -0,0 +1,36 @@
+package com.bogdan.fullstackproject.benchmark;
+
+import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
+import com.bogdan.fullstackproject.customer.mapper.CustomerMapper;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerMapperBenchmark {
+
+    private final CustomerMapper customerMapper = new CustomerMapper();
+
+    private final Customer customer = new Customer(1, "Jamila", "jamila@gmail.com",
+            "password", 19, Gender.FEMALE);
+
+    @Benchmark
+    public CustomerDTO apply() {
+        return customerMapper.apply(customer);
+    }
+}
@@ -0,0 +1,72 @@
+package com.bogdan.fullstackproject.benchmark;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerRowMapper;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps one row of an in-memory CachedRowSet (the JDK's own ResultSet implementation), so the
+ * figure is the mapper's own cost: column lookups by label, boxing and the Gender lookup.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerRowMapperBenchmark {
+
+    private final CustomerRowMapper customerRowMapper = new CustomerRowMapper();
+
+    private CachedRowSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(7);
+        String[] labels = {"id", "name", "email", "password", "age", "gender", "version"};
+        int[] types = {Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.BIGINT};
+        for (int i = 0; i < labels.length; i++) {
+            metaData.setColumnName(i + 1, labels[i]);
+            metaData.setColumnLabel(i + 1, labels[i]);
+            metaData.setColumnType(i + 1, types[i]);
+        }
+
+        resultSet = RowSetProvider.newFactory().createCachedRowSet();
+        resultSet.setMetaData(metaData);
+        resultSet.moveToInsertRow();
+        resultSet.updateInt("id", 1);
+        resultSet.updateString("name", "Jamila");
+        resultSet.updateString("email", "jamila@gmail.com");
+        resultSet.updateString("password", "$2a$10$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW");
+        resultSet.updateInt("age", 19);
+        resultSet.updateString("gender", "FEMALE");
+        resultSet.updateLong("version", 0L);
+        resultSet.insertRow();
+        resultSet.moveToCurrentRow();
+        resultSet.beforeFirst();
+        resultSet.next();
+    }
+
+    @Benchmark
+    public Customer mapRow() throws SQLException {
+        return customerRowMapper.mapRow(resultSet, 1);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bogdan.fullstackproject.benchmark;
+
+import com.bogdan.fullstackproject.exception.ApiError;
+import com.bogdan.fullstackproject.exception.DefaultExceptionHandler;
+import com.bogdan.fullstackproject.exception.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error paths as they happen in a request: the exception is created (including its stack trace)
+ * and rendered into an ApiError response by DefaultExceptionHandler.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultExceptionHandlerBenchmark {
+
+    private final DefaultExceptionHandler exceptionHandler = new DefaultExceptionHandler();
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/10");
+
+    @Benchmark
+    public ResponseEntity<ApiError> resourceNotFound() {
+        return exceptionHandler.handleException(
+                new ResourceNotFoundException("Customer with id [%s] not found".formatted(10)), request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> badCredentials() {
+        return exceptionHandler.handleException(new BadCredentialsException("Bad credentials"), request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> insufficientAuthentication() {
+        return exceptionHandler.handleException(
+                new InsufficientAuthenticationException("Full authentication is required"), request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> unexpected() {
+        return exceptionHandler.handleException((Exception) new IllegalStateException("Unexpected"), request);
+    }
+}
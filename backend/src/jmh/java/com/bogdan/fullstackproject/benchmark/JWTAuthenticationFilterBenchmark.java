@@ -0,0 +1,125 @@
+package com.bogdan.fullstackproject.benchmark;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerDao;
+import com.bogdan.fullstackproject.customer.dao.CustomerJDBCDataAccessService;
+import com.bogdan.fullstackproject.customer.dao.CustomerRowMapper;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import com.bogdan.fullstackproject.customer.service.CustomerUserDetailsService;
+import com.bogdan.fullstackproject.jwt.JWTAuthenticationFilter;
+import com.bogdan.fullstackproject.jwt.JWTUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * Authentication cost of one request, with the principal resolved three ways:
+ * - database: every request loads the customer by email from PostgreSQL through the JDBC DAO,
+ *   as on a principal cache miss
+ * - principal-cache: CustomerUserDetailsService over the same DAO, so all but the first request
+ *   hit its cache
+ * - stateless: jwt.auth.stateless, principal built from the claims without a lookup
+ * ===
+ * PostgreSQL runs in a Testcontainer migrated by Flyway, so a run needs Docker on the box.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTAuthenticationFilterBenchmark {
+
+    @Param({"database", "principal-cache", "stateless"})
+    public String principal;
+
+    private PostgreSQLContainer<?> postgres;
+
+    private HikariDataSource dataSource;
+
+    private JWTAuthenticationFilter filter;
+
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:15.4")
+                .withDatabaseName("customer")
+                .withUsername("bogdan")
+                .withPassword("password");
+        postgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+
+        dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(postgres.getJdbcUrl())
+                .username(postgres.getUsername())
+                .password(postgres.getPassword())
+                .build();
+        CustomerDao customerDao = new CustomerJDBCDataAccessService(new JdbcTemplate(dataSource), new CustomerRowMapper());
+        Integer id = customerDao.insertCustomerIfEmailAbsent(
+                        new Customer("Jamila", "jamila@gmail.com", "password", 19, Gender.FEMALE))
+                .orElseThrow();
+
+        UserDetailsService userDetailsService = switch (principal) {
+            case "database" -> username -> customerDao.selectUserByEmail(username).orElseThrow();
+            case "principal-cache" -> new CustomerUserDetailsService(customerDao, 1_000, Duration.ofHours(1));
+            default -> username -> {
+                throw new IllegalStateException("Stateless mode must not load the principal");
+            };
+        };
+
+        JWTUtil jwtUtil = new JWTUtil(JWTUtilBenchmark.SECRET, Duration.ofHours(1), 0);
+        filter = new JWTAuthenticationFilter(jwtUtil, userDetailsService, principal.equals("stateless"));
+        authorization = "Bearer " + jwtUtil.generateAccessToken("jamila@gmail.com", id, List.of("ROLE_USER"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public void doFilter(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        request.addHeader(AUTHORIZATION, authorization);
+        FilterChain chain = (req, res) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.bogdan.fullstackproject.benchmark;
+
+import com.bogdan.fullstackproject.jwt.JWTUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * verifiedCacheSize=0 measures a full parse and HMAC check per call; a positive size measures
+ * the verified-token cache hit path (jwt.verified-cache.maximum-size).
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTUtilBenchmark {
+
+    static final String SECRET = "jwt@secret!key%test_jwt@secret!key%test_jwt@secret!key%test";
+
+    @Param({"0", "10000"})
+    public long verifiedCacheSize;
+
+    private JWTUtil jwtUtil;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JWTUtil(SECRET, Duration.ofHours(1), verifiedCacheSize);
+        token = jwtUtil.generateAccessToken("jamila@gmail.com", 1, List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtil.generateAccessToken("jamila@gmail.com", 1, List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return jwtUtil.getSubject(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtil.isTokenValid(token, "jamila@gmail.com");
+    }
+}
@@ -0,0 +1,61 @@
+package com.bogdan.fullstackproject.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Customers registered during the run, picked at random as targets of login, get, update and
+ * delete. Guarded by a ReentrantLock rather than synchronized, so the virtual threads sending the
+ * requests never pin their carrier.
+ */
+
+final class AccountPool {
+
+    record Account(Integer id, String email, String password, String token) {
+    }
+
+    private final List<Account> accounts = new ArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    void add(Account account) {
+        lock.lock();
+        try {
+            accounts.add(account);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Optional<Account> pick() {
+        lock.lock();
+        try {
+            if (accounts.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(accounts.get(ThreadLocalRandom.current().nextInt(accounts.size())));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Optional<Account> take() {
+        lock.lock();
+        try {
+            // Keep one account so the authenticated operations always have a token
+            if (accounts.size() < 2) {
+                return Optional.empty();
+            }
+            int index = ThreadLocalRandom.current().nextInt(accounts.size());
+            Account account = accounts.get(index);
+            accounts.set(index, accounts.get(accounts.size() - 1));
+            accounts.remove(accounts.size() - 1);
+            return Optional.of(account);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
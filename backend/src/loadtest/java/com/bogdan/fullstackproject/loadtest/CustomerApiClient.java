@@ -0,0 +1,136 @@
+package com.bogdan.fullstackproject.loadtest;
+
+import com.bogdan.fullstackproject.loadtest.AccountPool.Account;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Blocking calls against /api/v1/customers and /api/v1/auth/login. Every method returns the HTTP
+ * status, or -1 when the operation had no target (e.g. delete with an empty pool).
+ */
+
+final class CustomerApiClient {
+
+    private static final String CUSTOMER_PATH = "/api/v1/customers";
+
+    private static final String LOGIN_PATH = "/api/v1/auth/login";
+
+    private static final String PASSWORD = "password";
+
+    private final HttpClient httpClient;
+
+    private final String baseUrl;
+
+    private final AccountPool accounts;
+
+    CustomerApiClient(String baseUrl, AccountPool accounts, Executor executor) {
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.baseUrl = baseUrl;
+        this.accounts = accounts;
+    }
+
+    int execute(Operation operation) throws IOException, InterruptedException {
+        return switch (operation) {
+            case REGISTER -> register();
+            case LOGIN -> login();
+            case LIST -> list();
+            case GET -> get();
+            case UPDATE -> update();
+            case DELETE -> delete();
+        };
+    }
+
+    int register() throws IOException, InterruptedException {
+        String email = "loadtest-" + UUID.randomUUID() + "@gmail.com";
+        String body = """
+                {"name":"Load Test","email":"%s","password":"%s","age":%d,"gender":"UNSELECTED"}
+                """.formatted(email, PASSWORD, ThreadLocalRandom.current().nextInt(18, 90));
+
+        HttpResponse<Void> response = httpClient.send(
+                json(CUSTOMER_PATH).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        if (response.statusCode() == 200) {
+            String location = response.headers().firstValue("Location").orElseThrow();
+            String token = response.headers().firstValue("Authorization").orElseThrow();
+            Integer id = Integer.valueOf(location.substring(location.lastIndexOf('/') + 1));
+            accounts.add(new Account(id, email, PASSWORD, token));
+        }
+        return response.statusCode();
+    }
+
+    private int login() throws IOException, InterruptedException {
+        Account account = accounts.pick().orElse(null);
+        if (account == null) {
+            return -1;
+        }
+        String body = """
+                {"username":"%s","password":"%s"}
+                """.formatted(account.email(), account.password());
+
+        return send(json(LOGIN_PATH).POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    private int list() throws IOException, InterruptedException {
+        Account account = accounts.pick().orElse(null);
+        if (account == null) {
+            return -1;
+        }
+        return send(authorized(CUSTOMER_PATH + "?limit=100", account).GET());
+    }
+
+    private int get() throws IOException, InterruptedException {
+        Account account = accounts.pick().orElse(null);
+        if (account == null) {
+            return -1;
+        }
+        return send(authorized(CUSTOMER_PATH + "/" + account.id(), account).GET());
+    }
+
+    private int update() throws IOException, InterruptedException {
+        Account account = accounts.pick().orElse(null);
+        if (account == null) {
+            return -1;
+        }
+        String body = """
+                {"age":%d}
+                """.formatted(ThreadLocalRandom.current().nextInt(18, 90));
+
+        return send(authorized(CUSTOMER_PATH + "/" + account.id(), account)
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    private int delete() throws IOException, InterruptedException {
+        Account account = accounts.take().orElse(null);
+        if (account == null) {
+            return -1;
+        }
+        return send(authorized(CUSTOMER_PATH + "/" + account.id(), account).DELETE());
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest.Builder json(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+    }
+
+    private HttpRequest.Builder authorized(String path, Account account) {
+        return json(path).header("Authorization", "Bearer " + account.token());
+    }
+}
@@ -0,0 +1,121 @@
+package com.bogdan.fullstackproject.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation HdrHistograms in microseconds.
+ * ===
+ * responseTime is measured from the moment the request was scheduled to start, not from the moment
+ * it was actually sent, so time spent queueing behind a slow server counts as latency (the
+ * coordinated-omission correction). serviceTime is measured from the actual send and shows how
+ * much of the response time was queueing on the client side.
+ */
+
+final class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<Operation, Histogram> responseTimes = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Histogram> serviceTimes = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, LongAdder> skipped = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            responseTimes.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            serviceTimes.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+            skipped.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long intendedStartNanos, long actualStartNanos, long endNanos, int status) {
+        if (status < 0) {
+            skipped.get(operation).increment();
+            return;
+        }
+        responseTimes.get(operation).recordValue(toMicros(endNanos - intendedStartNanos));
+        serviceTimes.get(operation).recordValue(toMicros(endNanos - actualStartNanos));
+        if (status >= 300) {
+            errors.get(operation).increment();
+        }
+    }
+
+    void recordFailure(Operation operation, long intendedStartNanos, long endNanos) {
+        responseTimes.get(operation).recordValue(toMicros(endNanos - intendedStartNanos));
+        errors.get(operation).increment();
+    }
+
+    void reset() {
+        responseTimes.values().forEach(Histogram::reset);
+        serviceTimes.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+        skipped.values().forEach(LongAdder::reset);
+    }
+
+    void print(PrintStream out, double seconds) {
+        out.printf("%-9s %9s %8s %8s %10s %10s %10s %10s %10s %12s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+                "svc p99 ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = responseTimes.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            out.printf("%-9s %9d %8d %8.1f %10.2f %10.2f %10.2f %10.2f %10.2f %12.2f%n",
+                    operation.name().toLowerCase(),
+                    histogram.getTotalCount(),
+                    errors.get(operation).sum(),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    millis(serviceTimes.get(operation).getValueAtPercentile(99)));
+        }
+        skipped.forEach((operation, count) -> {
+            if (count.sum() > 0) {
+                out.printf("%s: %d requests skipped, no customer to target%n", operation.name().toLowerCase(), count.sum());
+            }
+        });
+    }
+
+    // Full percentile distributions, loadable in the HdrHistogram plotter
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = responseTimes.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(operation.name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,136 @@
+package com.bogdan.fullstackproject.loadtest;
+
+import com.bogdan.fullstackproject.MainApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load generator for the customer API: mvn -Ploadtest test
+ * ===
+ * Unless loadtest.base-url is set, it starts PostgreSQL in a Testcontainer and the application on a
+ * random port against it, so a run needs nothing but Docker on the box.
+ * ===
+ * Requests are scheduled at a fixed arrival rate (loadtest.rate) with the operation drawn from
+ * loadtest.mix. The dispatcher never waits for responses: every request runs on its own virtual
+ * thread, and its latency is measured from its scheduled start time. A stalled server therefore
+ * shows up as high latency for every request that should have been sent during the stall, instead
+ * of silently lowering the request rate (coordinated omission).
+ */
+
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+
+        if (config.baseUrl() != null) {
+            run(config, config.baseUrl());
+            return;
+        }
+
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.4")
+                .withDatabaseName("customer")
+                .withUsername("bogdan")
+                .withPassword("password")) {
+            postgres.start();
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MainApplication.class)
+                    .properties(
+                            "server.port=0",
+                            "spring.datasource.url=" + postgres.getJdbcUrl(),
+                            "spring.datasource.username=" + postgres.getUsername(),
+                            "spring.datasource.password=" + postgres.getPassword(),
+                            "spring.jpa.show-sql=false")
+                    .run(args)) {
+                run(config, "http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            }
+        }
+    }
+
+    private static void run(LoadTestConfig config, String baseUrl) throws Exception {
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            AccountPool accounts = new AccountPool();
+            CustomerApiClient client = new CustomerApiClient(baseUrl, accounts, requests);
+            LatencyReport report = new LatencyReport();
+
+            System.out.printf("Seeding %d customers on %s%n", config.seedAccounts(), baseUrl);
+            for (int i = 0; i < config.seedAccounts(); i++) {
+                client.register();
+            }
+
+            System.out.printf("Warm-up: %s at %d req/s%n", config.warmup(), config.rate());
+            drive(config, config.warmup(), client, requests, report);
+            report.reset();
+
+            System.out.printf("Measuring: %s at %d req/s, mix %s%n", config.duration(), config.rate(), config.mix());
+            drive(config, config.duration(), client, requests, report);
+
+            report.print(System.out, config.duration().toNanos() / 1e9);
+            Path reportDir = Path.of(config.reportDir());
+            report.writeDistributions(reportDir);
+            System.out.printf("Percentile distributions written to %s%n", reportDir.toAbsolutePath());
+        }
+    }
+
+    private static void drive(LoadTestConfig config, Duration duration, CustomerApiClient client,
+                              ExecutorService requests, LatencyReport report) throws InterruptedException {
+        Operation[] operations = weightedOperations(config.mix());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long total = duration.toSeconds() * config.rate();
+        AtomicLong inFlight = new AtomicLong();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = operations[ThreadLocalRandom.current().nextInt(operations.length)];
+            inFlight.incrementAndGet();
+            requests.execute(() -> {
+                long actualStart = System.nanoTime();
+                try {
+                    int status = client.execute(operation);
+                    report.record(operation, intendedStart, actualStart, System.nanoTime(), status);
+                } catch (Exception e) {
+                    report.recordFailure(operation, intendedStart, System.nanoTime());
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+
+        // Let the requests of this phase finish before the caller resets or prints the report
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+    }
+
+    private static Operation[] weightedOperations(Map<Operation, Integer> mix) {
+        List<Operation> operations = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+        });
+        return operations.toArray(Operation[]::new);
+    }
+}
@@ -0,0 +1,63 @@
+package com.bogdan.fullstackproject.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load test settings, read from system properties (see the loadtest profile in pom.xml):
+ * ===
+ * loadtest.rate          - requests per second, all operations together
+ * loadtest.warmup        - ISO-8601 duration run before measuring (results discarded)
+ * loadtest.duration      - ISO-8601 duration of the measured run
+ * loadtest.mix           - weights per operation, e.g. register=5,login=10,list=5,get=60,update=15,delete=5
+ * loadtest.seed-accounts - customers registered before the run, so get/update/delete have targets
+ * loadtest.base-url      - target an already running instance instead of starting one
+ * loadtest.report-dir    - directory for the per-operation .hgrm percentile distributions
+ */
+
+record LoadTestConfig(
+        int rate,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        int seedAccounts,
+        String baseUrl,
+        String reportDir
+) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.rate", 200),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                parseMix(System.getProperty("loadtest.mix",
+                        "register=5,login=10,list=5,get=60,update=15,delete=5")),
+                Integer.getInteger("loadtest.seed-accounts", 200),
+                blankToNull(System.getProperty("loadtest.base-url")),
+                System.getProperty("loadtest.report-dir", "target/loadtest"));
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry [%s]".formatted(entry));
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix [%s] has no operation with a positive weight".formatted(mix));
+        }
+        return weights;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,5 @@
+package com.bogdan.fullstackproject.loadtest;
+
+enum Operation {
+    REGISTER, LOGIN, LIST, GET, UPDATE, DELETE
+}
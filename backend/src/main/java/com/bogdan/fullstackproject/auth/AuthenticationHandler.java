@@ -0,0 +1,56 @@
+package com.bogdan.fullstackproject.auth;
+
+import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
+import com.bogdan.fullstackproject.customer.mapper.CustomerMapper;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.jwt.JWTUtil;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of AuthenticationController and AuthenticationService.
+ */
+
+@Component
+@Profile("reactive")
+public class AuthenticationHandler {
+
+    private final ReactiveAuthenticationManager authenticationManager;
+
+    private final CustomerMapper customerMapper;
+
+    private final JWTUtil jwtUtil;
+
+    public AuthenticationHandler(ReactiveAuthenticationManager authenticationManager,
+                                 CustomerMapper customerMapper, JWTUtil jwtUtil) {
+        this.authenticationManager = authenticationManager;
+        this.customerMapper = customerMapper;
+        this.jwtUtil = jwtUtil;
+    }
+
+    public Mono<ServerResponse> login(ServerRequest request) {
+        return request.bodyToMono(AuthenticationRequest.class)
+                .flatMap(authenticationRequest -> authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(
+                                authenticationRequest.username(),
+                                authenticationRequest.password()
+                        )
+                ))
+                .flatMap(authentication -> {
+                    Customer principal = (Customer) authentication.getPrincipal();
+                    CustomerDTO customerDTO = customerMapper.apply(principal);
+                    String token = jwtUtil.generateAccessToken(
+                            customerDTO.username(), customerDTO.id(), customerDTO.roles());
+
+                    return ServerResponse.ok()
+                            .header(HttpHeaders.AUTHORIZATION, token)
+                            .bodyValue(new AuthenticationResponse(token, customerDTO));
+                });
+    }
+}
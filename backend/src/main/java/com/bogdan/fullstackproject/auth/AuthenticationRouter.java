@@ -0,0 +1,20 @@
+package com.bogdan.fullstackproject.auth;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+@Configuration
+@Profile("reactive")
+public class AuthenticationRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> authenticationRoutes(AuthenticationHandler handler) {
+        return RouterFunctions.route()
+                .POST("/api/v1/auth/login", handler::login)
+                .build();
+    }
+}
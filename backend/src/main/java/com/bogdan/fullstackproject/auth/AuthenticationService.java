@@ -4,12 +4,14 @@ import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
 import com.bogdan.fullstackproject.customer.mapper.CustomerMapper;
 import com.bogdan.fullstackproject.customer.model.Customer;
 import com.bogdan.fullstackproject.jwt.JWTUtil;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 @Service
+@Profile("!reactive")
 public class AuthenticationService {
 
     private final AuthenticationManager authenticationManager;
@@ -36,7 +38,7 @@ public class AuthenticationService {
 
         Customer principal = (Customer) authentication.getPrincipal();
         CustomerDTO customerDTO = customerMapper.apply(principal);
-        String token = jwtUtil.generateAccessToken(customerDTO.username(), customerDTO.roles());
+        String token = jwtUtil.generateAccessToken(customerDTO.username(), customerDTO.id(), customerDTO.roles());
 
         return new AuthenticationResponse(token, customerDTO);
     }
@@ -0,0 +1,55 @@
+package com.bogdan.fullstackproject.cache;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Second-level cache regions for the Customer entity, backed by in-process Caffeine caches
+ * through JCache. Each region is bounded by `cache.customer.maximum-size` entries (Caffeine
+ * evicts with W-TinyLFU once the bound is reached) and entries expire
+ * `cache.customer.time-to-live` after they were written.
+ * ===
+ * The regions are created here and handed to Hibernate as an explicit CacheManager, so the sizes
+ * come from application.properties instead of a provider-specific config file.
+ * Hit/miss counts are published by Hibernate statistics as `hibernate.second.level.cache.requests`
+ * under /actuator/metrics.
+ * ===
+ * Only writes made through Hibernate keep the regions consistent. Rows changed through the JDBC
+ * data access service are not seen until their entries expire.
+ */
+
+@Configuration
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${cache.customer.maximum-size}") long maximumSize,
+                                              @Value("${cache.customer.time-to-live}") Duration timeToLive) {
+        CacheManager cacheManager = Caching
+                .getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        configuration.setStatisticsEnabled(true);
+
+        cacheManager.createCache(Customer.CACHE_REGION, configuration);
+        cacheManager.createCache(Customer.EMAIL_CACHE_REGION, configuration);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+}
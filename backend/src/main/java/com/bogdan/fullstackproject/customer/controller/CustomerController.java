@@ -1,53 +1,177 @@
 package com.bogdan.fullstackproject.customer.controller;
 
+import com.bogdan.fullstackproject.customer.dto.CustomerBulkRegistrationDTO;
 import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
+import com.bogdan.fullstackproject.customer.dto.CustomerPageDTO;
+import com.bogdan.fullstackproject.customer.dto.VersionedCustomerDTO;
 import com.bogdan.fullstackproject.customer.model.Customer;
 import com.bogdan.fullstackproject.customer.model.CustomerRegistrationRequest;
 import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
+import com.bogdan.fullstackproject.customer.service.CustomerBulkRegistrationService;
 import com.bogdan.fullstackproject.customer.service.CustomerService;
+import com.bogdan.fullstackproject.customer.service.CustomerStreamService;
 import com.bogdan.fullstackproject.jwt.JWTUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("api/v1/customers")
 public class CustomerController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    // Flush the servlet buffer every N rows so the client sees data while the cursor is still open
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
     private final CustomerService customerService;
 
+    private final CustomerBulkRegistrationService customerBulkRegistrationService;
+
+    private final CustomerStreamService customerStreamService;
+
     private final JWTUtil jwtUtil;
 
-    public CustomerController(CustomerService customerService, JWTUtil jwtUtil) {
+    private final ObjectWriter ndjsonWriter;
+
+    public CustomerController(CustomerService customerService,
+                              CustomerBulkRegistrationService customerBulkRegistrationService,
+                              CustomerStreamService customerStreamService,
+                              JWTUtil jwtUtil, ObjectMapper objectMapper) {
         this.customerService = customerService;
+        this.customerBulkRegistrationService = customerBulkRegistrationService;
+        this.customerStreamService = customerStreamService;
         this.jwtUtil = jwtUtil;
+        this.ndjsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
+    /*
+     * The change counter is read before the rows: a write landing in between leaves a body newer
+     * than its tag, which only costs the client one more full response, never a stale 304.
+     */
     @GetMapping
-    public List<CustomerDTO> getCustomers() {
+    public List<CustomerDTO> getCustomers(WebRequest request) {
+        if (request.checkNotModified(CustomerETags.customers(customerService.getCustomersVersion()))) {
+            return null;
+        }
         return customerService.getAllCustomers();
     }
 
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public void streamCustomers(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON);
+
+        try (JsonGenerator generator = ndjsonWriter.createGenerator(response.getOutputStream())) {
+            int[] written = {0};
+            customerStreamService.streamAllCustomers(customer -> {
+                try {
+                    ndjsonWriter.writeValue(generator, customer);
+                    generator.writeRaw('\n');
+                    if (++written[0] % STREAM_FLUSH_INTERVAL == 1) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @GetMapping(params = "limit")
+    public CustomerPageDTO getCustomersPage(@RequestParam(value = "after", required = false) String after,
+                                            @RequestParam("limit") int limit,
+                                            @RequestParam(value = "gender", required = false) String gender,
+                                            @RequestParam(value = "minAge", required = false) Integer minAge,
+                                            @RequestParam(value = "maxAge", required = false) Integer maxAge,
+                                            @RequestParam(value = "sort", required = false) String sort) {
+        if (gender == null && minAge == null && maxAge == null && sort == null) {
+            return customerService.getCustomersPage(after, limit);
+        }
+        return customerService.queryCustomers(gender, minAge, maxAge, sort, after, limit);
+    }
+
+    @GetMapping("search")
+    public CustomerPageDTO searchCustomers(@RequestParam("q") String query,
+                                           @RequestParam(value = "after", required = false) String after,
+                                           @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return customerService.searchCustomers(query, after, limit);
+    }
+
     @GetMapping("{customerId}")
-    public CustomerDTO getCustomer(@PathVariable("customerId") Integer customerId) {
-        return customerService.getCustomer(customerId);
+    public CustomerDTO getCustomer(@PathVariable("customerId") Integer customerId, WebRequest request) {
+        VersionedCustomerDTO versioned = customerService.getVersionedCustomer(customerId);
+        if (request.checkNotModified(CustomerETags.customer(customerId, versioned.version()))) {
+            return null;
+        }
+        return versioned.customer();
     }
 
     @PostMapping
     public ResponseEntity<?> registerCustomer(@RequestBody CustomerRegistrationRequest request) {
-        customerService.addCustomer(request);
-        String jwtToken = jwtUtil.generateAccessToken(request.email(), "ROLE_USER");
+        Integer customerId = customerService.addCustomer(request);
+        String jwtToken = jwtUtil.generateAccessToken(
+                request.email().toLowerCase(Locale.ROOT), customerId, List.of("ROLE_USER"));
         return ResponseEntity.ok()
                 .header(HttpHeaders.AUTHORIZATION, jwtToken)
+                .header(HttpHeaders.LOCATION, "/api/v1/customers/" + customerId)
                 .build();
     }
 
+    /*
+     * The list is registered in the background: 202 with the job, whose Location is polled for the
+     * per-row outcomes until its status leaves RUNNING.
+     */
+    @PostMapping("bulk")
+    public ResponseEntity<CustomerBulkRegistrationDTO> registerCustomers(
+            @RequestBody List<CustomerRegistrationRequest> requests) {
+        CustomerBulkRegistrationDTO registration = customerBulkRegistrationService.submit(requests);
+        return ResponseEntity.accepted()
+                .header(HttpHeaders.LOCATION, "/api/v1/customers/bulk/" + registration.id())
+                .body(registration);
+    }
+
+    @GetMapping("bulk/{registrationId}")
+    public CustomerBulkRegistrationDTO getBulkRegistration(@PathVariable("registrationId") String registrationId) {
+        return customerBulkRegistrationService.getRegistration(registrationId);
+    }
+
+    /*
+     * With If-Match carrying the ETag of GET /{customerId}, the update is version-checked in a
+     * single statement and answers 412 when the customer changed since; the new ETag is returned.
+     */
     @PutMapping("{customerId}")
-    public void updateCustomer(@PathVariable("customerId") Integer customerId,
-                               @RequestBody CustomerUpdateRequest updateRequest) {
-        customerService.updateCustomer(customerId, updateRequest);
+    public ResponseEntity<Void> updateCustomer(@PathVariable("customerId") Integer customerId,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @RequestBody CustomerUpdateRequest updateRequest) {
+        if (ifMatch == null || CustomerETags.matchesAny(ifMatch)) {
+            customerService.updateCustomer(customerId, updateRequest);
+            return ResponseEntity.ok().build();
+        }
+
+        long version = customerService.updateCustomer(
+                customerId, CustomerETags.version(customerId, ifMatch), updateRequest);
+        return ResponseEntity.ok()
+                .eTag(CustomerETags.customer(customerId, version))
+                .build();
+    }
+
+    @PatchMapping("{customerId}")
+    public void patchCustomer(@PathVariable("customerId") Integer customerId,
+                              @RequestBody CustomerUpdateRequest patchRequest) {
+        customerService.patchCustomer(customerId, patchRequest);
     }
 
     @DeleteMapping("{customerId}")
@@ -0,0 +1,45 @@
+package com.bogdan.fullstackproject.customer.controller;
+
+import com.bogdan.fullstackproject.exception.PreconditionFailedException;
+
+/**
+ * Entity tags of the customer resources, shared by CustomerController and CustomerHandler.
+ * ===
+ * A single customer is tagged with its id and row version, which the database bumps on every
+ * update, so the tag is strong. The list is tagged with the table-wide change counter: it moves
+ * on every write but says nothing about byte equality of two responses, so the tag is weak.
+ * ===
+ * If-Match on a PUT is compared strongly: only a customer's own strong tag yields the version to
+ * check, anything else (a weak tag, another customer's tag, a list of tags) can never match.
+ */
+final class CustomerETags {
+
+    private CustomerETags() {
+    }
+
+    static String customer(Integer customerId, long version) {
+        return "\"%s-%s\"".formatted(customerId, version);
+    }
+
+    static String customers(long changes) {
+        return "W/\"%s\"".formatted(changes);
+    }
+
+    static boolean matchesAny(String ifMatch) {
+        return "*".equals(ifMatch.trim());
+    }
+
+    static long version(Integer customerId, String ifMatch) {
+        String tag = ifMatch.trim();
+        String prefix = "\"%s-".formatted(customerId);
+        if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the precondition failure below
+            }
+        }
+        throw new PreconditionFailedException(
+                "If-Match [%s] does not match customer with id [%s]".formatted(ifMatch, customerId));
+    }
+}
@@ -0,0 +1,142 @@
+package com.bogdan.fullstackproject.customer.controller;
+
+import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
+import com.bogdan.fullstackproject.customer.dto.CustomerPageDTO;
+import com.bogdan.fullstackproject.customer.model.CustomerRegistrationRequest;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
+import com.bogdan.fullstackproject.customer.service.ReactiveCustomerService;
+import com.bogdan.fullstackproject.exception.RequestValidationException;
+import com.bogdan.fullstackproject.jwt.JWTUtil;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Handler functions behind CustomerRouter, the reactive profile's counterpart of CustomerController.
+ * Responses, headers and status codes match the servlet controller.
+ */
+
+@Component
+@Profile("reactive")
+public class CustomerHandler {
+
+    private final ReactiveCustomerService customerService;
+
+    private final JWTUtil jwtUtil;
+
+    public CustomerHandler(ReactiveCustomerService customerService, JWTUtil jwtUtil) {
+        this.customerService = customerService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    // Counter first, rows only when the client's copy is stale (see CustomerController#getCustomers)
+    public Mono<ServerResponse> getCustomers(ServerRequest request) {
+        return customerService.getCustomersVersion()
+                .map(CustomerETags::customers)
+                .flatMap(etag -> request.checkNotModified(etag)
+                        .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                                .eTag(etag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(customerService.getAllCustomers(), CustomerDTO.class))));
+    }
+
+    // Rows are written as they arrive from the database, one JSON document per line
+    public Mono<ServerResponse> streamCustomers(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(customerService.getAllCustomers(), CustomerDTO.class);
+    }
+
+    public Mono<ServerResponse> getCustomersPage(ServerRequest request) {
+        String after = request.queryParam("after").orElse(null);
+        int limit = intParam(request.queryParam("limit").orElse(""), "limit");
+        String gender = request.queryParam("gender").orElse(null);
+        Integer minAge = request.queryParam("minAge").map(value -> intParam(value, "minAge")).orElse(null);
+        Integer maxAge = request.queryParam("maxAge").map(value -> intParam(value, "maxAge")).orElse(null);
+        String sort = request.queryParam("sort").orElse(null);
+
+        Mono<CustomerPageDTO> page = gender == null && minAge == null && maxAge == null && sort == null
+                ? customerService.getCustomersPage(after, limit)
+                : customerService.queryCustomers(gender, minAge, maxAge, sort, after, limit);
+        return page.flatMap(body -> ServerResponse.ok().bodyValue(body));
+    }
+
+    public Mono<ServerResponse> searchCustomers(ServerRequest request) {
+        String query = request.queryParam("q").orElse(null);
+        String after = request.queryParam("after").orElse(null);
+        int limit = intParam(request.queryParam("limit").orElse("20"), "limit");
+
+        return customerService.searchCustomers(query, after, limit)
+                .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    public Mono<ServerResponse> getCustomer(ServerRequest request) {
+        Integer customerId = customerId(request);
+        return customerService.getVersionedCustomer(customerId)
+                .flatMap(versioned -> {
+                    String etag = CustomerETags.customer(customerId, versioned.version());
+                    return request.checkNotModified(etag)
+                            .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().eTag(etag).bodyValue(versioned.customer())));
+                });
+    }
+
+    public Mono<ServerResponse> registerCustomer(ServerRequest request) {
+        return request.bodyToMono(CustomerRegistrationRequest.class)
+                .flatMap(registration -> customerService.addCustomer(registration)
+                        .flatMap(customerId -> {
+                            String jwtToken = jwtUtil.generateAccessToken(
+                                    registration.email().toLowerCase(Locale.ROOT), customerId, List.of("ROLE_USER"));
+                            return ServerResponse.ok()
+                                    .header(HttpHeaders.AUTHORIZATION, jwtToken)
+                                    .header(HttpHeaders.LOCATION, "/api/v1/customers/" + customerId)
+                                    .build();
+                        }));
+    }
+
+    // Version-checked when If-Match is present (see CustomerController#updateCustomer)
+    public Mono<ServerResponse> updateCustomer(ServerRequest request) {
+        Integer customerId = customerId(request);
+        String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        if (ifMatch == null || CustomerETags.matchesAny(ifMatch)) {
+            return request.bodyToMono(CustomerUpdateRequest.class)
+                    .flatMap(update -> customerService.updateCustomer(customerId, update))
+                    .then(ServerResponse.ok().build());
+        }
+
+        long expectedVersion = CustomerETags.version(customerId, ifMatch);
+        return request.bodyToMono(CustomerUpdateRequest.class)
+                .flatMap(update -> customerService.updateCustomer(customerId, expectedVersion, update))
+                .flatMap(version -> ServerResponse.ok().eTag(CustomerETags.customer(customerId, version)).build());
+    }
+
+    public Mono<ServerResponse> patchCustomer(ServerRequest request) {
+        Integer customerId = customerId(request);
+        return request.bodyToMono(CustomerUpdateRequest.class)
+                .flatMap(patch -> customerService.patchCustomer(customerId, patch))
+                .then(ServerResponse.ok().build());
+    }
+
+    public Mono<ServerResponse> deleteCustomer(ServerRequest request) {
+        return customerService.deleteCustomer(customerId(request))
+                .then(ServerResponse.ok().build());
+    }
+
+    private static Integer customerId(ServerRequest request) {
+        return intParam(request.pathVariable("customerId"), "customerId");
+    }
+
+    private static int intParam(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new RequestValidationException("Invalid %s [%s]".formatted(name, value));
+        }
+    }
+}
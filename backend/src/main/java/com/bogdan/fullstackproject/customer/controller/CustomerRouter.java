@@ -0,0 +1,38 @@
+package com.bogdan.fullstackproject.customer.controller;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Functional routes of the reactive profile, mirroring the request mappings of CustomerController.
+ * Routes are matched in order: a `limit` query parameter selects the keyset page and an explicit
+ * `Accept: application/x-ndjson` selects the stream, otherwise the full list is returned.
+ */
+
+@Configuration
+@Profile("reactive")
+public class CustomerRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> customerRoutes(CustomerHandler handler) {
+        return RouterFunctions.route()
+                .path("/api/v1/customers", builder -> builder
+                        .GET("", RequestPredicates.queryParam("limit", limit -> true), handler::getCustomersPage)
+                        .GET("", RequestPredicates.headers(headers ->
+                                headers.accept().contains(MediaType.APPLICATION_NDJSON)), handler::streamCustomers)
+                        .GET("", handler::getCustomers)
+                        .GET("/search", handler::searchCustomers)
+                        .GET("/{customerId}", handler::getCustomer)
+                        .POST("", handler::registerCustomer)
+                        .PUT("/{customerId}", handler::updateCustomer)
+                        .PATCH("/{customerId}", handler::patchCustomer)
+                        .DELETE("/{customerId}", handler::deleteCustomer))
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.bogdan.fullstackproject.customer.dao;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The set of customer columns a partial update touches. Only non-null values are kept,
+ * so both data access services can turn it into a single
+ * `UPDATE customer SET <changed columns> WHERE id = ?` statement.
+ * ===
+ * Keys are both the column names and the entity attribute names, and they only ever come
+ * from the constants below, never from user input.
+ */
+
+public final class CustomerColumnUpdates {
+
+    public static final String NAME = "name";
+
+    public static final String EMAIL = "email";
+
+    public static final String AGE = "age";
+
+    public static final String PASSWORD = "password";
+
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+
+    private CustomerColumnUpdates(String name, String email, Integer age) {
+        put(NAME, name);
+        put(EMAIL, email == null ? null : email.toLowerCase(Locale.ROOT));
+        put(AGE, age);
+    }
+
+    public static CustomerColumnUpdates of(CustomerUpdateRequest request) {
+        return new CustomerColumnUpdates(request.name(), request.email(), request.age());
+    }
+
+    public static CustomerColumnUpdates of(Customer customer) {
+        return new CustomerColumnUpdates(customer.getName(), customer.getEmail(), customer.getAge());
+    }
+
+    public static CustomerColumnUpdates password(String encodedPassword) {
+        CustomerColumnUpdates updates = new CustomerColumnUpdates(null, null, null);
+        updates.put(PASSWORD, encodedPassword);
+        return updates;
+    }
+
+    private void put(String column, Object value) {
+        if (value != null) {
+            columns.put(column, value);
+        }
+    }
+
+    public boolean isEmpty() {
+        return columns.isEmpty();
+    }
+
+    public Map<String, Object> columns() {
+        return Collections.unmodifiableMap(columns);
+    }
+}
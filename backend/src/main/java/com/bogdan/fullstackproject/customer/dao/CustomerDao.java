@@ -1,25 +1,75 @@
 package com.bogdan.fullstackproject.customer.dao;
 
 import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface CustomerDao {
 
     List<Customer> selectAllCustomers();
 
+    List<Customer> selectCustomersAfter(Integer afterId, int limit);
+
+    /**
+     * One keyset page of the customers matching the query's filters, in the query's order.
+     */
+    List<Customer> selectCustomers(CustomerQuery query);
+
     Optional<Customer> selectCustomerById(Integer customerId);
 
+    /**
+     * Table-wide change counter: grows with every statement that writes the customer table.
+     */
+    long selectCustomersVersion();
+
+    /**
+     * Fuzzy match of the query against name and email (pg_trgm word similarity), best matches first.
+     */
+    List<Customer> searchCustomers(String query, int offset, int limit);
+
     void insertCustomer(Customer customer);
 
+    /**
+     * Inserts the customer unless the email is already taken, in a single atomic statement.
+     * Returns the generated id, or empty when the email belongs to another customer.
+     */
+    Optional<Integer> insertCustomerIfEmailAbsent(Customer customer);
+
+    /**
+     * Inserts the customers in one INSERT ... ON CONFLICT (email) DO NOTHING statement. Returns the
+     * generated ids of the inserted rows by (lower-cased) email; customers whose email was already
+     * taken are left out.
+     */
+    Map<String, Integer> insertCustomersIfEmailAbsent(List<Customer> customers);
+
     boolean existsCustomerWithEmail(String email);
 
+    /**
+     * Returns the lower-cased emails from the given ones that are already registered.
+     */
+    Set<String> selectExistingEmails(Collection<String> emails);
+
     boolean existsCustomerWithId(Integer customerId);
 
     void deleteCustomerById(Integer customerId);
 
     void updateCustomer(Customer updateCustomer);
 
+    boolean patchCustomer(Integer customerId, CustomerUpdateRequest patch);
+
+    /**
+     * Applies the non-null fields of the update with one `UPDATE ... WHERE id = ? AND version = ?`
+     * statement. Returns the new row version, or empty when no customer has that id and version.
+     */
+    Optional<Long> updateCustomerIfVersion(Integer customerId, long expectedVersion, CustomerUpdateRequest update);
+
+    boolean updateCustomerPassword(Integer customerId, String encodedPassword);
+
     Optional<Customer> selectUserByEmail(String email);
 }
@@ -0,0 +1,53 @@
+package com.bogdan.fullstackproject.customer.dao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * With `dao.metrics.enabled=true` every CustomerDao bean (jdbc and jpa) is decorated with a
+ * CustomerDaoMetricsInterceptor; the meters show up under /actuator/metrics/customer.dao,
+ * customer.dao.rows and customer.dao.errors.
+ * ===
+ * The interceptor is added in front of the bean's existing advice (transactions, exception
+ * translation), so the timings include commit and translation. The bean keeps its own class,
+ * which matters for CustomerStreamService injecting CustomerJDBCDataAccessService directly.
+ * When the property is off no post-processor is registered and the DAO beans are not proxied
+ * at all.
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "dao.metrics.enabled", havingValue = "true")
+public class CustomerDaoMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor customerDaoMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof CustomerDao)) {
+                    return bean;
+                }
+
+                CustomerDaoMetricsInterceptor interceptor =
+                        new CustomerDaoMetricsInterceptor(meterRegistry.getObject(), beanName);
+
+                if (bean instanceof Advised advised && !advised.isFrozen()) {
+                    advised.addAdvisor(0, new DefaultPointcutAdvisor(interceptor));
+                    return bean;
+                }
+
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setProxyTargetClass(true);
+                proxyFactory.addAdvice(interceptor);
+                return proxyFactory.getProxy(bean.getClass().getClassLoader());
+            }
+        };
+    }
+}
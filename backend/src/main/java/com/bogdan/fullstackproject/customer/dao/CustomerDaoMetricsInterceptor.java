@@ -0,0 +1,112 @@
+package com.bogdan.fullstackproject.customer.dao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every CustomerDao call of one DAO bean:
+ * `customer.dao` timer with a percentile histogram, `customer.dao.rows` summary of the rows
+ * returned or affected, and `customer.dao.errors` counter tagged with the exception type.
+ * All meters are tagged with method and implementation (the bean name, e.g. jdbc or jpa).
+ * ===
+ * The meters are registered up front, one set per CustomerDao method, so a call only looks
+ * its method up by name and records two longs: nothing is allocated on the success path.
+ */
+
+class CustomerDaoMetricsInterceptor implements MethodInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    private final String implementation;
+
+    private final Map<String, MethodMetrics> metrics = new HashMap<>();
+
+    CustomerDaoMetricsInterceptor(MeterRegistry meterRegistry, String implementation) {
+        this.meterRegistry = meterRegistry;
+        this.implementation = implementation;
+        for (Method method : CustomerDao.class.getMethods()) {
+            metrics.put(method.getName(), new MethodMetrics(method.getName()));
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodMetrics methodMetrics = metrics.get(invocation.getMethod().getName());
+        if (methodMetrics == null) {
+            return invocation.proceed();
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            methodMetrics.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            long rows = rows(result);
+            if (rows >= 0) {
+                methodMetrics.rows.record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            methodMetrics.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            methodMetrics.error(e);
+            throw e;
+        }
+    }
+
+    // -1 when the method does not return rows (void inserts, updates and deletes)
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Boolean found) {
+            return found ? 1 : 0;
+        }
+        return -1;
+    }
+
+    private final class MethodMetrics {
+
+        private final String method;
+
+        private final Timer timer;
+
+        private final DistributionSummary rows;
+
+        MethodMetrics(String method) {
+            this.method = method;
+            this.timer = Timer.builder("customer.dao")
+                    .description("CustomerDao call latency")
+                    .tag("method", method)
+                    .tag("implementation", implementation)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rows = DistributionSummary.builder("customer.dao.rows")
+                    .description("Rows returned or affected by a CustomerDao call")
+                    .tag("method", method)
+                    .tag("implementation", implementation)
+                    .register(meterRegistry);
+        }
+
+        void error(Throwable e) {
+            Counter.builder("customer.dao.errors")
+                    .tag("method", method)
+                    .tag("implementation", implementation)
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
@@ -1,11 +1,27 @@
 package com.bogdan.fullstackproject.customer.dao;
 
 import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerSortField;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Repository("jdbc")
 public class CustomerJDBCDataAccessService implements CustomerDao {
@@ -22,17 +38,157 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
     @Override
     public List<Customer> selectAllCustomers() {
         String sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, password, age, gender, version
                 FROM customer
                 """;
 
         return jdbcTemplate.query(sql, customerRowMapper);
     }
 
+    @Override
+    public List<Customer> selectCustomersAfter(Integer afterId, int limit) {
+        String sql = """
+                SELECT id, name, email, password, age, gender, version
+                FROM customer
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """;
+
+        return jdbcTemplate.query(sql, customerRowMapper, afterId, limit);
+    }
+
+    /**
+     * Builds the WHERE clause from the filters that are set and continues after the previous page
+     * with a row-value comparison, (name, id) > (?, ?), which PostgreSQL turns into a single range
+     * condition on the (name, id) / (age, id) indexes. Column names come from CustomerSortField,
+     * never from the request.
+     */
+    @Override
+    public List<Customer> selectCustomers(CustomerQuery query) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, name, email, password, age, gender, version
+                FROM customer
+                WHERE TRUE
+                """);
+        List<Object> args = new ArrayList<>();
+
+        if (query.gender() != null) {
+            sql.append("AND gender = ?\n");
+            args.add(query.gender().name());
+        }
+        if (query.minAge() != null) {
+            sql.append("AND age >= ?\n");
+            args.add(query.minAge());
+        }
+        if (query.maxAge() != null) {
+            sql.append("AND age <= ?\n");
+            args.add(query.maxAge());
+        }
+
+        CustomerSortField sortBy = query.sortBy();
+        String comparison = query.descending() ? "<" : ">";
+        String direction = query.descending() ? "DESC" : "ASC";
+
+        CustomerQuery.After after = query.after();
+        if (after != null) {
+            switch (sortBy) {
+                case ID -> sql.append("AND id %s ?\n".formatted(comparison));
+                case NAME -> {
+                    sql.append("AND (name, id) %s (?, ?)\n".formatted(comparison));
+                    args.add(after.name());
+                }
+                case AGE -> {
+                    sql.append("AND (age, id) %s (?, ?)\n".formatted(comparison));
+                    args.add(after.age());
+                }
+            }
+            args.add(after.id());
+        }
+
+        if (sortBy == CustomerSortField.ID) {
+            sql.append("ORDER BY id %s\n".formatted(direction));
+        } else {
+            sql.append("ORDER BY %s %s, id %s\n".formatted(sortBy.column(), direction, direction));
+        }
+        sql.append("LIMIT ?\n");
+        args.add(query.limit());
+
+        return jdbcTemplate.query(sql.toString(), customerRowMapper, args.toArray());
+    }
+
+    @Override
+    public long selectCustomersVersion() {
+        String sql = """
+                SELECT coalesce(sum(changes), 0)::bigint
+                FROM customer_change_counter
+                """;
+
+        Long version = jdbcTemplate.queryForObject(sql, Long.class);
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Each branch walks the trigram GiST index of its column nearest first (V8 migration) and
+     * stops after offset + limit matches, the most the merged page can need from one column. The
+     * work is bounded by the page position, not by how many rows match.
+     * ===
+     * `name %> ?` and `name <->> ?` are the commutators of `? <% name` and `? <<-> name`
+     * (distance = 1 - word_similarity); the index only serves them with the column on the left.
+     */
+    @Override
+    public List<Customer> searchCustomers(String query, int offset, int limit) {
+        String sql = """
+                WITH matches AS (
+                    (SELECT id, name <->> ? AS distance
+                     FROM customer
+                     WHERE name %> ?
+                     ORDER BY name <->> ?
+                     LIMIT ?)
+                    UNION ALL
+                    (SELECT id, email <->> ? AS distance
+                     FROM customer
+                     WHERE email %> ?
+                     ORDER BY email <->> ?
+                     LIMIT ?)
+                )
+                SELECT c.id, c.name, c.email, c.password, c.age, c.gender, c.version
+                FROM (SELECT id, min(distance) AS distance FROM matches GROUP BY id) ranked
+                JOIN customer c ON c.id = ranked.id
+                ORDER BY ranked.distance, c.id
+                LIMIT ? OFFSET ?
+                """;
+
+        int window = offset + limit;
+        return jdbcTemplate.query(sql, customerRowMapper,
+                query, query, query, window, query, query, query, window, limit, offset);
+    }
+
+    /**
+     * Reads the whole table through a server-side cursor and hands every row to the consumer
+     * as soon as it is mapped, so memory stays flat regardless of the table size.
+     * PostgreSQL only honours the fetch size when auto-commit is off, so the caller has to run
+     * this inside a transaction; otherwise the driver buffers the full result set.
+     */
+    public void streamAllCustomers(int fetchSize, Consumer<Customer> consumer) {
+        String sql = """
+                SELECT id, name, email, password, age, gender, version
+                FROM customer
+                ORDER BY id
+                """;
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(customerRowMapper.mapRow(rs, rs.getRow())));
+    }
+
     @Override
     public Optional<Customer> selectCustomerById(Integer customerId) {
         String sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, password, age, gender, version
                 FROM customer WHERE id = ?
                 """;
 
@@ -52,28 +208,106 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
                 customer.getAge(), customer.getGender().name());
     }
 
+    @Override
+    public Optional<Integer> insertCustomerIfEmailAbsent(Customer customer) {
+        String sql = """
+                INSERT INTO customer(name, email, password, age, gender)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id
+                """;
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt("id"),
+                        customer.getName(), customer.getEmail(), customer.getPassword(),
+                        customer.getAge(), customer.getGender().name())
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Sends the rows as five arrays in a single INSERT ... SELECT FROM unnest(...) statement.
+     */
+    @Override
+    public Map<String, Integer> insertCustomersIfEmailAbsent(List<Customer> customers) {
+        if (customers.isEmpty()) {
+            return Map.of();
+        }
+
+        String sql = """
+                INSERT INTO customer(name, email, password, age, gender)
+                SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::int[], ?::text[])
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id, email
+                """;
+
+        Map<String, Integer> inserted = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("text",
+                    customers.stream().map(Customer::getName).toArray()));
+            statement.setArray(2, connection.createArrayOf("text",
+                    customers.stream().map(Customer::getEmail).toArray()));
+            statement.setArray(3, connection.createArrayOf("text",
+                    customers.stream().map(Customer::getPassword).toArray()));
+            statement.setArray(4, connection.createArrayOf("int4",
+                    customers.stream().map(Customer::getAge).toArray()));
+            statement.setArray(5, connection.createArrayOf("text",
+                    customers.stream().map(customer -> customer.getGender().name()).toArray()));
+            return statement;
+        }, (RowCallbackHandler) rs -> inserted.put(rs.getString("email"), rs.getInt("id")));
+
+        return inserted;
+    }
+
     @Override
     public boolean existsCustomerWithEmail(String email) {
         String sql = """
-                SELECT COUNT(id)
+                SELECT EXISTS (
+                    SELECT 1
+                    FROM customer
+                    WHERE email = lower(?)
+                )
+                """;
+
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, email));
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+
+        String sql = """
+                SELECT email
                 FROM customer
-                WHERE email = ?
+                WHERE email = ANY(?)
                 """;
 
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, email);
-        return count != null && count > 0;
+        Object[] normalized = emails.stream()
+                .map(email -> email.toLowerCase(Locale.ROOT))
+                .toArray();
+
+        List<String> existing = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("text", normalized));
+            return statement;
+        }, (rs, rowNum) -> rs.getString(1));
+
+        return new HashSet<>(existing);
     }
 
     @Override
     public boolean existsCustomerWithId(Integer customerId) {
         String sql = """
-                SELECT COUNT(id)
-                FROM customer
-                WHERE id = ?
+                SELECT EXISTS (
+                    SELECT 1
+                    FROM customer
+                    WHERE id = ?
+                )
                 """;
 
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, customerId);
-        return count != null && count > 0;
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, customerId));
     }
 
     @Override
@@ -89,40 +323,73 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
 
     @Override
     public void updateCustomer(Customer updateCustomer) {
-        if (updateCustomer.getName() != null) {
-            String sql = """
-                    UPDATE customer
-                    SET name = ?
-                    WHERE id = ?
-                    """;
+        updateColumns(updateCustomer.getId(), CustomerColumnUpdates.of(updateCustomer));
+    }
 
-            jdbcTemplate.update(sql, updateCustomer.getName(), updateCustomer.getId());
-        }
-        if (updateCustomer.getAge() != null) {
-            String sql = """
-                    UPDATE customer
-                    SET age = ?
-                    WHERE id = ?
-                    """;
+    @Override
+    public boolean patchCustomer(Integer customerId, CustomerUpdateRequest patch) {
+        return updateColumns(customerId, CustomerColumnUpdates.of(patch)) > 0;
+    }
+
+    @Override
+    public boolean updateCustomerPassword(Integer customerId, String encodedPassword) {
+        return updateColumns(customerId, CustomerColumnUpdates.password(encodedPassword)) > 0;
+    }
 
-            jdbcTemplate.update(sql, updateCustomer.getAge(), updateCustomer.getId());
+    @Override
+    public Optional<Long> updateCustomerIfVersion(Integer customerId, long expectedVersion,
+                                                  CustomerUpdateRequest update) {
+        CustomerColumnUpdates updates = CustomerColumnUpdates.of(update);
+        if (updates.isEmpty()) {
+            return Optional.empty();
         }
-        if (updateCustomer.getEmail() != null) {
-            String sql = """
-                    UPDATE customer
-                    SET email = ?
-                    WHERE id = ?
-                    """;
 
-            jdbcTemplate.update(sql, updateCustomer.getEmail(), updateCustomer.getId());
+        // RETURNING sees the row after the customer_row_version trigger ran, so this is the new version
+        String sql = """
+                UPDATE customer
+                SET %s
+                WHERE id = ? AND version = ?
+                RETURNING version
+                """.formatted(setClause(updates));
+
+        List<Object> args = new ArrayList<>(updates.columns().values());
+        args.add(customerId);
+        args.add(expectedVersion);
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getLong("version"), args.toArray())
+                .stream()
+                .findFirst();
+    }
+
+    private int updateColumns(Integer customerId, CustomerColumnUpdates updates) {
+        if (updates.isEmpty()) {
+            return 0;
         }
+
+        String sql = """
+                UPDATE customer
+                SET %s
+                WHERE id = ?
+                """.formatted(setClause(updates));
+
+        List<Object> args = new ArrayList<>(updates.columns().values());
+        args.add(customerId);
+
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+
+    private static String setClause(CustomerColumnUpdates updates) {
+        return updates.columns().keySet()
+                .stream()
+                .map(column -> column + " = ?")
+                .collect(Collectors.joining(", "));
     }
 
     @Override
     public Optional<Customer> selectUserByEmail(String email) {
         String sql = """
-                SELECT id, name, email, password, age, gender
-                FROM customer WHERE email = ?
+                SELECT id, name, email, password, age, gender, version
+                FROM customer WHERE email = lower(?)
                 """;
 
         return jdbcTemplate.query(sql, customerRowMapper, email)
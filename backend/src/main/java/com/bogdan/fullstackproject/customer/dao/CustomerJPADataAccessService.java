@@ -1,11 +1,20 @@
 package com.bogdan.fullstackproject.customer.dao;
 
 import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
 import com.bogdan.fullstackproject.customer.repository.CustomerRepository;
+import com.bogdan.fullstackproject.customer.repository.CustomerSpecifications;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository("jpa")
 public class CustomerJPADataAccessService implements CustomerDao {
@@ -21,21 +30,63 @@ public class CustomerJPADataAccessService implements CustomerDao {
         return customerRepository.findAll();
     }
 
+    @Override
+    public List<Customer> selectCustomersAfter(Integer afterId, int limit) {
+        return customerRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.ofSize(limit));
+    }
+
     @Override
     public Optional<Customer> selectCustomerById(Integer customerId) {
         return customerRepository.findById(customerId);
     }
 
+    @Override
+    public List<Customer> selectCustomers(CustomerQuery query) {
+        return customerRepository.findAllLimited(
+                CustomerSpecifications.matching(query), CustomerSpecifications.sort(query), query.limit());
+    }
+
+    @Override
+    public long selectCustomersVersion() {
+        return customerRepository.selectCustomersVersion();
+    }
+
+    @Override
+    public List<Customer> searchCustomers(String query, int offset, int limit) {
+        return customerRepository.searchByNameOrEmail(query, offset, limit, offset + limit);
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
         customerRepository.save(customer);
     }
 
+    @Override
+    public Optional<Integer> insertCustomerIfEmailAbsent(Customer customer) {
+        return customerRepository.insertIfEmailAbsent(customer.getName(), customer.getEmail(),
+                customer.getPassword(), customer.getAge(), customer.getGender().name());
+    }
+
+    @Override
+    public Map<String, Integer> insertCustomersIfEmailAbsent(List<Customer> customers) {
+        return customerRepository.insertAllIfEmailAbsent(customers);
+    }
+
     @Override
     public boolean existsCustomerWithEmail(String email) {
         return customerRepository.existsCustomerByEmail(email);
     }
 
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(customerRepository.findExistingEmails(emails.stream()
+                .map(email -> email.toLowerCase(Locale.ROOT))
+                .toList()));
+    }
+
     @Override
     public boolean existsCustomerWithId(Integer customerId) {
         return customerRepository.existsCustomerById(customerId);
@@ -43,12 +94,28 @@ public class CustomerJPADataAccessService implements CustomerDao {
 
     @Override
     public void updateCustomer(Customer updateCustomer) {
-        customerRepository.save(updateCustomer);
+        customerRepository.updateColumns(updateCustomer.getId(), CustomerColumnUpdates.of(updateCustomer));
+    }
+
+    @Override
+    public boolean patchCustomer(Integer customerId, CustomerUpdateRequest patch) {
+        return customerRepository.updateColumns(customerId, CustomerColumnUpdates.of(patch)) > 0;
+    }
+
+    @Override
+    public Optional<Long> updateCustomerIfVersion(Integer customerId, long expectedVersion,
+                                                  CustomerUpdateRequest update) {
+        return customerRepository.updateColumnsIfVersion(customerId, expectedVersion, CustomerColumnUpdates.of(update));
+    }
+
+    @Override
+    public boolean updateCustomerPassword(Integer customerId, String encodedPassword) {
+        return customerRepository.updateColumns(customerId, CustomerColumnUpdates.password(encodedPassword)) > 0;
     }
 
     @Override
     public Optional<Customer> selectUserByEmail(String email) {
-        return customerRepository.findCustomerByEmail(email);
+        return customerRepository.findByNaturalEmail(email);
     }
 
     @Override
@@ -0,0 +1,305 @@
+package com.bogdan.fullstackproject.customer.dao;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerSortField;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of CustomerJDBCDataAccessService for the reactive profile. It runs the
+ * same SQL through the R2DBC DatabaseClient, so a request waiting on PostgreSQL holds no thread
+ * and a few event-loop threads serve all connections.
+ */
+
+@Repository("r2dbc")
+@Profile("reactive")
+public class CustomerR2DBCDataAccessService implements ReactiveCustomerDao {
+
+    private final DatabaseClient databaseClient;
+
+    public CustomerR2DBCDataAccessService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Customer> selectAllCustomers() {
+        String sql = """
+                SELECT id, name, email, password, age, gender, version
+                FROM customer
+                """;
+
+        return databaseClient.sql(sql)
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .all();
+    }
+
+    @Override
+    public Flux<Customer> selectCustomersAfter(Integer afterId, int limit) {
+        String sql = """
+                SELECT id, name, email, password, age, gender, version
+                FROM customer
+                WHERE id > :afterId
+                ORDER BY id
+                LIMIT :limit
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .all();
+    }
+
+    // Same statement as CustomerJDBCDataAccessService.selectCustomers, with named binds
+    @Override
+    public Flux<Customer> selectCustomers(CustomerQuery query) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, name, email, password, age, gender, version
+                FROM customer
+                WHERE TRUE
+                """);
+        Map<String, Object> binds = new LinkedHashMap<>();
+
+        if (query.gender() != null) {
+            sql.append("AND gender = :gender\n");
+            binds.put("gender", query.gender().name());
+        }
+        if (query.minAge() != null) {
+            sql.append("AND age >= :minAge\n");
+            binds.put("minAge", query.minAge());
+        }
+        if (query.maxAge() != null) {
+            sql.append("AND age <= :maxAge\n");
+            binds.put("maxAge", query.maxAge());
+        }
+
+        CustomerSortField sortBy = query.sortBy();
+        String comparison = query.descending() ? "<" : ">";
+        String direction = query.descending() ? "DESC" : "ASC";
+
+        CustomerQuery.After after = query.after();
+        if (after != null) {
+            switch (sortBy) {
+                case ID -> sql.append("AND id %s :afterId\n".formatted(comparison));
+                case NAME -> {
+                    sql.append("AND (name, id) %s (:afterName, :afterId)\n".formatted(comparison));
+                    binds.put("afterName", after.name());
+                }
+                case AGE -> {
+                    sql.append("AND (age, id) %s (:afterAge, :afterId)\n".formatted(comparison));
+                    binds.put("afterAge", after.age());
+                }
+            }
+            binds.put("afterId", after.id());
+        }
+
+        if (sortBy == CustomerSortField.ID) {
+            sql.append("ORDER BY id %s\n".formatted(direction));
+        } else {
+            sql.append("ORDER BY %s %s, id %s\n".formatted(sortBy.column(), direction, direction));
+        }
+        sql.append("LIMIT :limit\n");
+        binds.put("limit", query.limit());
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> bind : binds.entrySet()) {
+            spec = spec.bind(bind.getKey(), bind.getValue());
+        }
+        return spec.map(CustomerR2DBCDataAccessService::mapRow).all();
+    }
+
+    @Override
+    public Mono<Long> selectCustomersVersion() {
+        String sql = """
+                SELECT coalesce(sum(changes), 0)::bigint AS changes
+                FROM customer_change_counter
+                """;
+
+        return databaseClient.sql(sql)
+                .map(row -> row.get("changes", Long.class))
+                .one();
+    }
+
+    @Override
+    public Flux<Customer> searchCustomers(String query, int offset, int limit) {
+        String sql = """
+                WITH matches AS (
+                    (SELECT id, name <->> :query AS distance
+                     FROM customer
+                     WHERE name %> :query
+                     ORDER BY name <->> :query
+                     LIMIT :window)
+                    UNION ALL
+                    (SELECT id, email <->> :query AS distance
+                     FROM customer
+                     WHERE email %> :query
+                     ORDER BY email <->> :query
+                     LIMIT :window)
+                )
+                SELECT c.id, c.name, c.email, c.password, c.age, c.gender, c.version
+                FROM (SELECT id, min(distance) AS distance FROM matches GROUP BY id) ranked
+                JOIN customer c ON c.id = ranked.id
+                ORDER BY ranked.distance, c.id
+                LIMIT :limit OFFSET :offset
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("query", query)
+                .bind("window", offset + limit)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .all();
+    }
+
+    @Override
+    public Mono<Customer> selectCustomerById(Integer customerId) {
+        String sql = """
+                SELECT id, name, email, password, age, gender, version
+                FROM customer WHERE id = :id
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("id", customerId)
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .one();
+    }
+
+    @Override
+    public Mono<Integer> insertCustomerIfEmailAbsent(Customer customer) {
+        String sql = """
+                INSERT INTO customer(name, email, password, age, gender)
+                VALUES (:name, :email, :password, :age, :gender)
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("name", customer.getName())
+                .bind("email", customer.getEmail())
+                .bind("password", customer.getPassword())
+                .bind("age", customer.getAge())
+                .bind("gender", customer.getGender().name())
+                .map(row -> row.get("id", Integer.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> existsCustomerWithEmail(String email) {
+        String sql = """
+                SELECT EXISTS (SELECT 1 FROM customer WHERE email = lower(:email)) AS present
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("email", email)
+                .map(row -> row.get("present", Boolean.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> deleteCustomerById(Integer customerId) {
+        String sql = """
+                DELETE FROM customer WHERE id = :id
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("id", customerId)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    @Override
+    public Mono<Boolean> patchCustomer(Integer customerId, CustomerUpdateRequest patch) {
+        return updateColumns(customerId, CustomerColumnUpdates.of(patch));
+    }
+
+    @Override
+    public Mono<Long> updateCustomerIfVersion(Integer customerId, long expectedVersion,
+                                              CustomerUpdateRequest update) {
+        CustomerColumnUpdates updates = CustomerColumnUpdates.of(update);
+        if (updates.isEmpty()) {
+            return Mono.empty();
+        }
+
+        String sql = """
+                UPDATE customer
+                SET %s
+                WHERE id = :id AND version = :version
+                RETURNING version
+                """.formatted(setClause(updates));
+
+        return bindColumns(databaseClient.sql(sql).bind("id", customerId), updates)
+                .bind("version", expectedVersion)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    private Mono<Boolean> updateColumns(Integer customerId, CustomerColumnUpdates updates) {
+        if (updates.isEmpty()) {
+            return Mono.just(false);
+        }
+
+        String sql = """
+                UPDATE customer
+                SET %s
+                WHERE id = :id
+                """.formatted(setClause(updates));
+
+        return bindColumns(databaseClient.sql(sql).bind("id", customerId), updates)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    private static String setClause(CustomerColumnUpdates updates) {
+        return updates.columns().keySet()
+                .stream()
+                .map(column -> column + " = :" + column)
+                .collect(Collectors.joining(", "));
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindColumns(DatabaseClient.GenericExecuteSpec spec,
+                                                                 CustomerColumnUpdates updates) {
+        for (Map.Entry<String, Object> column : updates.columns().entrySet()) {
+            spec = spec.bind(column.getKey(), column.getValue());
+        }
+        return spec;
+    }
+
+    @Override
+    public Mono<Customer> selectUserByEmail(String email) {
+        String sql = """
+                SELECT id, name, email, password, age, gender, version
+                FROM customer WHERE email = lower(:email)
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("email", email)
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .one();
+    }
+
+    private static Customer mapRow(Readable row) {
+        Customer customer = new Customer(
+                row.get("id", Integer.class),
+                row.get("name", String.class),
+                row.get("email", String.class),
+                row.get("password", String.class),
+                row.get("age", Integer.class),
+                Gender.valueOf(row.get("gender", String.class)));
+        customer.setVersion(row.get("version", Long.class));
+        return customer;
+    }
+}
@@ -13,12 +13,14 @@ public class CustomerRowMapper implements RowMapper<Customer> {
 
     @Override
     public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
-        return new Customer(
+        Customer customer = new Customer(
                 rs.getInt("id"),
                 rs.getString("name"),
                 rs.getString("email"),
                 rs.getString("password"),
                 rs.getInt("age"),
                 Gender.valueOf(rs.getString("gender")));
+        customer.setVersion(rs.getLong("version"));
+        return customer;
     }
 }
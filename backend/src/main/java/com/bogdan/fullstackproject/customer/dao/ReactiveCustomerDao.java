@@ -0,0 +1,34 @@
+package com.bogdan.fullstackproject.customer.dao;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCustomerDao {
+
+    Flux<Customer> selectAllCustomers();
+
+    Flux<Customer> selectCustomersAfter(Integer afterId, int limit);
+
+    Flux<Customer> selectCustomers(CustomerQuery query);
+
+    Mono<Customer> selectCustomerById(Integer customerId);
+
+    Mono<Long> selectCustomersVersion();
+
+    Flux<Customer> searchCustomers(String query, int offset, int limit);
+
+    Mono<Integer> insertCustomerIfEmailAbsent(Customer customer);
+
+    Mono<Boolean> existsCustomerWithEmail(String email);
+
+    Mono<Boolean> deleteCustomerById(Integer customerId);
+
+    Mono<Boolean> patchCustomer(Integer customerId, CustomerUpdateRequest patch);
+
+    Mono<Long> updateCustomerIfVersion(Integer customerId, long expectedVersion, CustomerUpdateRequest update);
+
+    Mono<Customer> selectUserByEmail(String email);
+}
@@ -0,0 +1,17 @@
+package com.bogdan.fullstackproject.customer.dto;
+
+import java.util.List;
+
+public record CustomerBulkRegistrationDTO(
+        String id,
+        Status status,
+        int total,
+        int processed,
+        String error,
+        List<CustomerRegistrationOutcome> outcomes
+) {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+}
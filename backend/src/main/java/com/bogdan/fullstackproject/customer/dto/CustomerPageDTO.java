@@ -0,0 +1,9 @@
+package com.bogdan.fullstackproject.customer.dto;
+
+import java.util.List;
+
+public record CustomerPageDTO(
+        List<CustomerDTO> customers,
+        String nextCursor
+) {
+}
@@ -0,0 +1,13 @@
+package com.bogdan.fullstackproject.customer.dto;
+
+public record CustomerRegistrationOutcome(
+        int index,
+        String email,
+        Status status,
+        String message
+) {
+
+    public enum Status {
+        INSERTED, DUPLICATE_EMAIL, INVALID
+    }
+}
@@ -0,0 +1,7 @@
+package com.bogdan.fullstackproject.customer.dto;
+
+public record VersionedCustomerDTO(
+        CustomerDTO customer,
+        long version
+) {
+}
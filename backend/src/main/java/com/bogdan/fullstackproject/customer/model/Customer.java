@@ -1,15 +1,25 @@
 package com.bogdan.fullstackproject.customer.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Customer.CACHE_REGION)
+@NaturalIdCache(region = Customer.EMAIL_CACHE_REGION)
 @Table(
         name = "customer",
         uniqueConstraints = {
@@ -21,11 +31,15 @@ import java.util.Objects;
 )
 public class Customer implements UserDetails {
 
+    public static final String CACHE_REGION = "customer";
+
+    public static final String EMAIL_CACHE_REGION = "customer-email";
+
     @Id
     @SequenceGenerator(
             name = "customer_id_seq",
             sequenceName = "customer_id_seq",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -36,6 +50,7 @@ public class Customer implements UserDetails {
     @Column(nullable = false)
     private String name;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false)
     private String email;
 
@@ -49,13 +64,21 @@ public class Customer implements UserDetails {
     @Column(nullable = false)
     private String password;
 
+    /*
+     * Maintained by the customer_row_version trigger (V7 migration), never written or re-read by
+     * Hibernate: new rows start at 0, and the updates take the new value from UPDATE ... RETURNING
+     * and evict the cached customer.
+     */
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long version;
+
     public Customer() {
     }
 
     public Customer(Integer id, String name, String email, String password, Integer age, Gender gender) {
         this.id = id;
         this.name = name;
-        this.email = email;
+        this.email = normalizeEmail(email);
         this.password = password;
         this.age = age;
         this.gender = gender;
@@ -63,7 +86,7 @@ public class Customer implements UserDetails {
 
     public Customer(String name, String email, String password, Integer age, Gender gender) {
         this.name = name;
-        this.email = email;
+        this.email = normalizeEmail(email);
         this.password = password;
         this.age = age;
         this.gender = gender;
@@ -90,7 +113,12 @@ public class Customer implements UserDetails {
     }
 
     public void setEmail(String email) {
-        this.email = email;
+        this.email = normalizeEmail(email);
+    }
+
+    // Emails are stored lower-cased so they can be matched exactly (see V4 migration)
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
     }
 
     public Integer getAge() {
@@ -119,6 +147,18 @@ public class Customer implements UserDetails {
         return this.password;
     }
 
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public String getUsername() {
         return email;
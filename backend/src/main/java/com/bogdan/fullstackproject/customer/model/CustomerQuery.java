@@ -0,0 +1,27 @@
+package com.bogdan.fullstackproject.customer.model;
+
+/**
+ * Filters, order and keyset position of a customer page. Null filters are not applied;
+ * `after` is null for the first page.
+ */
+
+public record CustomerQuery(
+        Gender gender,
+        Integer minAge,
+        Integer maxAge,
+        CustomerSortField sortBy,
+        boolean descending,
+        After after,
+        int limit
+) {
+
+    /**
+     * Sort key of the last customer of the previous page. name or age is set when sorting by it.
+     */
+    public record After(
+            Integer id,
+            String name,
+            Integer age
+    ) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.bogdan.fullstackproject.customer.model;
+
+import java.util.Locale;
+
+/**
+ * Sort keys of the customer page query. Every sort is completed by id, so the order is total and
+ * a page can continue from the (sort value, id) of the previous page's last row.
+ */
+
+public enum CustomerSortField {
+    ID("id"),
+    NAME("name"),
+    AGE("age");
+
+    // Column and entity attribute names are the same
+    private final String column;
+
+    CustomerSortField(String column) {
+        this.column = column;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public static CustomerSortField of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
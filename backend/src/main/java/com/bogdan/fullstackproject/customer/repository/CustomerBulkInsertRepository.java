@@ -0,0 +1,11 @@
+package com.bogdan.fullstackproject.customer.repository;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+
+import java.util.List;
+import java.util.Map;
+
+public interface CustomerBulkInsertRepository {
+
+    Map<String, Integer> insertAllIfEmailAbsent(List<Customer> customers);
+}
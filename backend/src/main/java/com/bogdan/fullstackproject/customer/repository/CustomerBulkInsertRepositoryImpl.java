@@ -0,0 +1,67 @@
+package com.bogdan.fullstackproject.customer.repository;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spring Data picks this class up as the implementation of the CustomerBulkInsertRepository
+ * fragment because of the "Impl" postfix.
+ * ===
+ * The rows go to the database as five arrays in one INSERT ... SELECT FROM unnest(...) statement,
+ * run on the session's own connection. ON CONFLICT skips the emails that are already taken,
+ * including by a registration committed after any earlier existence check, instead of failing
+ * the whole statement, and RETURNING reports which rows were actually inserted.
+ */
+
+public class CustomerBulkInsertRepositoryImpl implements CustomerBulkInsertRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Map<String, Integer> insertAllIfEmailAbsent(List<Customer> customers) {
+        if (customers.isEmpty()) {
+            return Map.of();
+        }
+
+        String sql = """
+                INSERT INTO customer(name, email, password, age, gender)
+                SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::int[], ?::text[])
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id, email
+                """;
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setArray(1, connection.createArrayOf("text",
+                        customers.stream().map(Customer::getName).toArray()));
+                statement.setArray(2, connection.createArrayOf("text",
+                        customers.stream().map(Customer::getEmail).toArray()));
+                statement.setArray(3, connection.createArrayOf("text",
+                        customers.stream().map(Customer::getPassword).toArray()));
+                statement.setArray(4, connection.createArrayOf("int4",
+                        customers.stream().map(Customer::getAge).toArray()));
+                statement.setArray(5, connection.createArrayOf("text",
+                        customers.stream().map(customer -> customer.getGender().name()).toArray()));
+
+                Map<String, Integer> inserted = new HashMap<>();
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        inserted.put(rs.getString("email"), rs.getInt("id"));
+                    }
+                }
+                return inserted;
+            }
+        });
+    }
+}
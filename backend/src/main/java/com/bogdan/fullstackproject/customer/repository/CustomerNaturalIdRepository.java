@@ -0,0 +1,10 @@
+package com.bogdan.fullstackproject.customer.repository;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+
+import java.util.Optional;
+
+public interface CustomerNaturalIdRepository {
+
+    Optional<Customer> findByNaturalEmail(String email);
+}
@@ -0,0 +1,28 @@
+package com.bogdan.fullstackproject.customer.repository;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Loads a customer through Hibernate's natural-id API, so a repeated lookup by email is
+ * resolved from the "customer-email" cache region (email -> id) and then the "customer"
+ * entity region, without touching the database.
+ */
+
+public class CustomerNaturalIdRepositoryImpl implements CustomerNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Customer> findByNaturalEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Customer.class)
+                .loadOptional(email.toLowerCase(Locale.ROOT));
+    }
+}
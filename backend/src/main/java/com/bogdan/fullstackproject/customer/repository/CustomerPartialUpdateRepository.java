@@ -0,0 +1,12 @@
+package com.bogdan.fullstackproject.customer.repository;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerColumnUpdates;
+
+import java.util.Optional;
+
+public interface CustomerPartialUpdateRepository {
+
+    int updateColumns(Integer customerId, CustomerColumnUpdates updates);
+
+    Optional<Long> updateColumnsIfVersion(Integer customerId, long expectedVersion, CustomerColumnUpdates updates);
+}
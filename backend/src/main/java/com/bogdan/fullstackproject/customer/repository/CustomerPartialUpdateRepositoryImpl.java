@@ -0,0 +1,99 @@
+package com.bogdan.fullstackproject.customer.repository;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerColumnUpdates;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Spring Data picks this class up as the implementation of the CustomerPartialUpdateRepository
+ * fragment because of the "Impl" postfix.
+ * ===
+ * Every update is one `UPDATE customer SET <changed columns> WHERE id = ? [AND version = ?]`
+ * statement, with no read beforehand. It runs as a native UPDATE ... RETURNING, which Hibernate
+ * treats as a query: a JPQL/Criteria bulk update (or a native executeUpdate) would make Hibernate
+ * evict the whole customer cache region. Instead only the updated customer is evicted (and the
+ * email lookups, when the email changes), now and again after commit.
+ */
+
+public class CustomerPartialUpdateRepositoryImpl implements CustomerPartialUpdateRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int updateColumns(Integer customerId, CustomerColumnUpdates updates) {
+        return update(customerId, null, updates).isPresent() ? 1 : 0;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Long> updateColumnsIfVersion(Integer customerId, long expectedVersion,
+                                                 CustomerColumnUpdates updates) {
+        return update(customerId, expectedVersion, updates);
+    }
+
+    // The new row version, or empty when no row matched
+    private Optional<Long> update(Integer customerId, Long expectedVersion, CustomerColumnUpdates updates) {
+        if (updates.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String sql = """
+                UPDATE customer
+                SET %s
+                WHERE id = :id%s
+                RETURNING version
+                """.formatted(updates.columns().keySet()
+                        .stream()
+                        .map(column -> column + " = :" + column)
+                        .collect(Collectors.joining(", ")),
+                expectedVersion == null ? "" : " AND version = :version");
+
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("id", customerId);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        updates.columns().forEach(query::setParameter);
+
+        List<?> versions = query.getResultList();
+        if (versions.isEmpty()) {
+            return Optional.empty();
+        }
+
+        evictCustomer(customerId, updates.columns().containsKey(CustomerColumnUpdates.EMAIL));
+        return Optional.of(((Number) versions.get(0)).longValue());
+    }
+
+    private void evictCustomer(Integer customerId, boolean emailChanged) {
+        Cache cache = entityManager.unwrap(Session.class).getSessionFactory().getCache();
+        Runnable evict = () -> {
+            cache.evictEntityData(Customer.class, customerId);
+            if (emailChanged) {
+                cache.evictNaturalIdData(Customer.class);
+            }
+        };
+
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+}
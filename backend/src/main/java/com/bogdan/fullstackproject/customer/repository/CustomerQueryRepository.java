@@ -0,0 +1,12 @@
+package com.bogdan.fullstackproject.customer.repository;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface CustomerQueryRepository {
+
+    List<Customer> findAllLimited(Specification<Customer> spec, Sort sort, int limit);
+}
@@ -1,18 +1,92 @@
 package com.bogdan.fullstackproject.customer.repository;
 
 import com.bogdan.fullstackproject.customer.model.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Integer> {
+public interface CustomerRepository extends JpaRepository<Customer, Integer>, JpaSpecificationExecutor<Customer>,
+        CustomerPartialUpdateRepository, CustomerNaturalIdRepository, CustomerQueryRepository,
+        CustomerBulkInsertRepository {
 
-    boolean existsCustomerByEmail(String email);
+    /*
+     * Emails are stored lower-cased, so lookups lower the argument and compare the bare column,
+     * which uses the customer_email_unique index. Derived "IgnoreCase" queries would generate
+     * upper(email) and fall back to a sequential scan.
+     */
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM customer WHERE email = lower(:email))",
+            nativeQuery = true)
+    boolean existsCustomerByEmail(@Param("email") String email);
 
     boolean existsCustomerById(Integer customerId);
 
-    Optional<Customer> findCustomerByEmail(String email);
+    @Query("SELECT c FROM Customer c WHERE c.email = lower(:email)")
+    Optional<Customer> findCustomerByEmail(@Param("email") String email);
+
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /*
+     * Native because JPQL has no ON CONFLICT. The statement returns a row, so it runs as a query
+     * rather than a @Modifying update; @Transactional overrides the read-only default that
+     * Spring Data applies to query methods.
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO customer(name, email, password, age, gender)
+            VALUES (:name, :email, :password, :age, :gender)
+            ON CONFLICT (email) DO NOTHING
+            RETURNING id
+            """, nativeQuery = true)
+    Optional<Integer> insertIfEmailAbsent(@Param("name") String name,
+                                          @Param("email") String email,
+                                          @Param("password") String password,
+                                          @Param("age") Integer age,
+                                          @Param("gender") String gender);
+
+    // Summed slots of the counter the customer_change_counter trigger bumps (V7 migration)
+    @Query(value = "SELECT coalesce(sum(changes), 0)::bigint FROM customer_change_counter", nativeQuery = true)
+    long selectCustomersVersion();
+
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    /*
+     * Native because word similarity is a pg_trgm operator. Each column's trigram GiST index is read
+     * nearest first and cut at window (offset + limit) matches; see CustomerJDBCDataAccessService.
+     */
+    @Query(value = """
+            WITH matches AS (
+                (SELECT id, name <->> :query AS distance
+                 FROM customer
+                 WHERE name %> :query
+                 ORDER BY name <->> :query
+                 LIMIT :window)
+                UNION ALL
+                (SELECT id, email <->> :query AS distance
+                 FROM customer
+                 WHERE email %> :query
+                 ORDER BY email <->> :query
+                 LIMIT :window)
+            )
+            SELECT c.*
+            FROM (SELECT id, min(distance) AS distance FROM matches GROUP BY id) ranked
+            JOIN customer c ON c.id = ranked.id
+            ORDER BY ranked.distance, c.id
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<Customer> searchByNameOrEmail(@Param("query") String query,
+                                       @Param("offset") int offset,
+                                       @Param("limit") int limit,
+                                       @Param("window") int window);
 
 }
@@ -0,0 +1,81 @@
+package com.bogdan.fullstackproject.customer.repository;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerSortField;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specifications for CustomerQuery. Together with the V6 composite indexes ((gender, name, id),
+ * (gender, age, id), (name, id), (age, id)) each filter and sort combination is an index range
+ * scan that stops after the requested number of rows.
+ */
+
+public final class CustomerSpecifications {
+
+    private CustomerSpecifications() {
+    }
+
+    public static Specification<Customer> matching(CustomerQuery query) {
+        return Specification.where(hasGender(query.gender()))
+                .and(ageAtLeast(query.minAge()))
+                .and(ageAtMost(query.maxAge()))
+                .and(after(query.sortBy(), query.descending(), query.after()));
+    }
+
+    public static Sort sort(CustomerQuery query) {
+        Sort.Direction direction = query.descending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort byId = Sort.by(direction, CustomerSortField.ID.column());
+        return query.sortBy() == CustomerSortField.ID
+                ? byId
+                : Sort.by(direction, query.sortBy().column()).and(byId);
+    }
+
+    public static Specification<Customer> hasGender(Gender gender) {
+        return gender == null ? null : (root, query, cb) -> cb.equal(root.get("gender"), gender);
+    }
+
+    public static Specification<Customer> ageAtLeast(Integer minAge) {
+        return minAge == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.<Integer>get("age"), minAge);
+    }
+
+    public static Specification<Customer> ageAtMost(Integer maxAge) {
+        return maxAge == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.<Integer>get("age"), maxAge);
+    }
+
+    /**
+     * Rows strictly after the given key in the sort order: (value, id) > (after.value, after.id),
+     * written out as value >= ? AND (value > ? OR id > ?) because JPA has no row-value comparison.
+     * The redundant leading value >= ? is what PostgreSQL turns into the start of the (value, id)
+     * index scan; with the OR alone it would scan from the first entry and filter.
+     */
+    public static Specification<Customer> after(CustomerSortField sortBy, boolean descending,
+                                                CustomerQuery.After after) {
+        if (after == null) {
+            return null;
+        }
+        return (root, query, cb) -> switch (sortBy) {
+            case ID -> descending
+                    ? cb.lessThan(root.<Integer>get("id"), after.id())
+                    : cb.greaterThan(root.<Integer>get("id"), after.id());
+            case NAME -> keysetAfter(cb, root.get("name"), after.name(), root.get("id"), after.id(), descending);
+            case AGE -> keysetAfter(cb, root.get("age"), after.age(), root.get("id"), after.id(), descending);
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate keysetAfter(CriteriaBuilder cb,
+                                                                           Path<T> value, T afterValue,
+                                                                           Path<Integer> id, Integer afterId,
+                                                                           boolean descending) {
+        return descending
+                ? cb.and(cb.lessThanOrEqualTo(value, afterValue),
+                        cb.or(cb.lessThan(value, afterValue), cb.lessThan(id, afterId)))
+                : cb.and(cb.greaterThanOrEqualTo(value, afterValue),
+                        cb.or(cb.greaterThan(value, afterValue), cb.greaterThan(id, afterId)));
+    }
+}
@@ -0,0 +1,290 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerDao;
+import com.bogdan.fullstackproject.customer.dto.CustomerBulkRegistrationDTO;
+import com.bogdan.fullstackproject.customer.dto.CustomerRegistrationOutcome;
+import com.bogdan.fullstackproject.customer.dto.CustomerRegistrationOutcome.Status;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerRegistrationRequest;
+import com.bogdan.fullstackproject.exception.PasswordHashingUnavailableException;
+import com.bogdan.fullstackproject.exception.RequestValidationException;
+import com.bogdan.fullstackproject.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Registers partner customer lists of up to {@value #MAX_BULK_SIZE} rows. Every row costs a
+ * calibrated BCrypt hash (~250 ms), so a list is accepted as a job and processed in the background
+ * on the application task executor; the client polls the job for its per-row outcomes.
+ * ===
+ * The list is processed in chunks of {@value #CHUNK_SIZE}: one existence query, the password hashes,
+ * then one INSERT ... ON CONFLICT (email) DO NOTHING statement whose returned rows decide the
+ * outcomes, so an email registered concurrently is reported as a duplicate instead of failing the
+ * chunk. Chunks are committed one by one; a failed job keeps the chunks processed before it.
+ * ===
+ * The hashes of a chunk run concurrently, but at most `customer.bulk.hashing-parallelism` at a time
+ * (0 = half the cores), so a job never fills the bounded hashing pool and logins keep their share
+ * of it. A hash rejected by a full pool is retried after a short pause.
+ * ===
+ * Jobs live in this instance's memory, at most {@value #MAX_TRACKED_REGISTRATIONS} of them, until
+ * `customer.bulk.time-to-live` after their last progress. The requests, passwords included, are
+ * dropped as soon as the job ends; only the outcomes are kept.
+ */
+
+@Service
+public class CustomerBulkRegistrationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerBulkRegistrationService.class);
+
+    private static final int MAX_BULK_SIZE = 50_000;
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final int MAX_TRACKED_REGISTRATIONS = 1_000;
+
+    private static final Duration HASHING_RETRY_DELAY = Duration.ofMillis(100);
+
+    private final CustomerDao customerDao;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final TaskExecutor taskExecutor;
+
+    private final int hashingParallelism;
+
+    private final Cache<String, Registration> registrations;
+
+    public CustomerBulkRegistrationService(@Qualifier("jpa") CustomerDao customerDao,
+                                           PasswordEncoder passwordEncoder,
+                                           @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                           @Value("${customer.bulk.hashing-parallelism:0}") int hashingParallelism,
+                                           @Value("${customer.bulk.time-to-live:1h}") Duration timeToLive) {
+        this.customerDao = customerDao;
+        this.passwordEncoder = passwordEncoder;
+        this.taskExecutor = taskExecutor;
+        this.hashingParallelism = hashingParallelism > 0
+                ? hashingParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.registrations = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_REGISTRATIONS)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    public CustomerBulkRegistrationDTO submit(List<CustomerRegistrationRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BULK_SIZE) {
+            throw new RequestValidationException(
+                    "Bulk registration must contain between 1 and %s customers".formatted(MAX_BULK_SIZE));
+        }
+
+        Registration registration = new Registration(UUID.randomUUID().toString(), new ArrayList<>(requests));
+        registrations.put(registration.id, registration);
+        taskExecutor.execute(() -> run(registration));
+        return registration.snapshot();
+    }
+
+    public CustomerBulkRegistrationDTO getRegistration(String registrationId) {
+        Registration registration = registrations.getIfPresent(registrationId);
+        if (registration == null) {
+            throw new ResourceNotFoundException(
+                    "Bulk registration with id [%s] not found".formatted(registrationId));
+        }
+        return registration.snapshot();
+    }
+
+    private void run(Registration registration) {
+        List<CustomerRegistrationRequest> requests = registration.requests;
+        Set<String> seenEmails = new HashSet<>();
+
+        try (ExecutorService hashers = Executors.newFixedThreadPool(
+                hashingParallelism, Thread.ofVirtual().name("bulk-hashing-", 0).factory())) {
+            for (int from = 0; from < requests.size(); from += CHUNK_SIZE) {
+                int to = Math.min(from + CHUNK_SIZE, requests.size());
+                registration.complete(registerChunk(requests.subList(from, to), from, seenEmails, hashers));
+                registrations.put(registration.id, registration);
+            }
+            registration.finish(null);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Bulk registration {} failed after {} of {} customers",
+                    registration.id, registration.processed(), requests.size(), e);
+            registration.finish("Registration stopped; customers without an outcome were not registered");
+        }
+        registrations.put(registration.id, registration);
+    }
+
+    /*
+     * Outcomes of one chunk, in request order; offset is the index of the chunk's first row.
+     * seenEmails carries the emails of earlier chunks, so a repeat anywhere in the list is caught.
+     */
+    private List<CustomerRegistrationOutcome> registerChunk(List<CustomerRegistrationRequest> chunk, int offset,
+                                                            Set<String> seenEmails, ExecutorService hashers) {
+        CustomerRegistrationOutcome[] outcomes = new CustomerRegistrationOutcome[chunk.size()];
+        Set<String> chunkEmails = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            CustomerRegistrationRequest request = chunk.get(i);
+            String violation = validateRegistration(request);
+            if (violation != null) {
+                outcomes[i] = new CustomerRegistrationOutcome(
+                        offset + i, request == null ? null : request.email(), Status.INVALID, violation);
+            } else if (!seenEmails.add(request.email().toLowerCase(Locale.ROOT))) {
+                outcomes[i] = new CustomerRegistrationOutcome(
+                        offset + i, request.email(), Status.DUPLICATE_EMAIL, "Email repeated in request");
+            } else {
+                chunkEmails.add(request.email().toLowerCase(Locale.ROOT));
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existingEmails = chunkEmails.isEmpty() ? Set.of() : customerDao.selectExistingEmails(chunkEmails);
+        List<Integer> toInsert = new ArrayList<>(candidates.size());
+        List<Future<String>> hashes = new ArrayList<>(candidates.size());
+
+        for (int i : candidates) {
+            CustomerRegistrationRequest request = chunk.get(i);
+            if (existingEmails.contains(request.email().toLowerCase(Locale.ROOT))) {
+                outcomes[i] = new CustomerRegistrationOutcome(
+                        offset + i, request.email(), Status.DUPLICATE_EMAIL, "Email already taken");
+                continue;
+            }
+            toInsert.add(i);
+            hashes.add(hashers.submit(() -> encode(request.password())));
+        }
+
+        List<Customer> customers = new ArrayList<>(toInsert.size());
+        for (int n = 0; n < toInsert.size(); n++) {
+            CustomerRegistrationRequest request = chunk.get(toInsert.get(n));
+            customers.add(new Customer(
+                    request.name(),
+                    request.email(),
+                    await(hashes.get(n)),
+                    request.age(),
+                    request.gender()));
+        }
+
+        Map<String, Integer> inserted = customers.isEmpty()
+                ? Map.of()
+                : customerDao.insertCustomersIfEmailAbsent(customers);
+
+        for (int i : toInsert) {
+            String email = chunk.get(i).email();
+            outcomes[i] = inserted.containsKey(email.toLowerCase(Locale.ROOT))
+                    ? new CustomerRegistrationOutcome(offset + i, email, Status.INSERTED, null)
+                    : new CustomerRegistrationOutcome(offset + i, email, Status.DUPLICATE_EMAIL, "Email already taken");
+        }
+
+        return Arrays.asList(outcomes);
+    }
+
+    private String encode(String password) throws InterruptedException {
+        while (true) {
+            try {
+                return passwordEncoder.encode(password);
+            } catch (PasswordHashingUnavailableException e) {
+                // The pool is full of logins; leave them the room and try again
+                Thread.sleep(HASHING_RETRY_DELAY);
+            }
+        }
+    }
+
+    private static String await(Future<String> hash) {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String validateRegistration(CustomerRegistrationRequest request) {
+        if (request == null) {
+            return "Customer is missing";
+        }
+        if (request.name() == null || request.name().isBlank()) {
+            return "Name is required";
+        }
+        if (request.email() == null || request.email().isBlank()) {
+            return "Email is required";
+        }
+        if (request.password() == null || request.password().isEmpty()) {
+            return "Password is required";
+        }
+        if (request.age() == null || request.age() < 0) {
+            return "Age must be a positive number";
+        }
+        if (request.gender() == null) {
+            return "Gender is required";
+        }
+        return null;
+    }
+
+    private static final class Registration {
+
+        private final String id;
+
+        private final int total;
+
+        private final List<CustomerRegistrationOutcome> outcomes;
+
+        private List<CustomerRegistrationRequest> requests;
+
+        private CustomerBulkRegistrationDTO.Status status = CustomerBulkRegistrationDTO.Status.RUNNING;
+
+        private String error;
+
+        private Registration(String id, List<CustomerRegistrationRequest> requests) {
+            this.id = id;
+            this.total = requests.size();
+            this.outcomes = new ArrayList<>(total);
+            this.requests = requests;
+        }
+
+        synchronized void complete(List<CustomerRegistrationOutcome> chunkOutcomes) {
+            outcomes.addAll(chunkOutcomes);
+        }
+
+        synchronized void finish(String error) {
+            this.requests = null;
+            this.error = error;
+            this.status = error == null
+                    ? CustomerBulkRegistrationDTO.Status.COMPLETED
+                    : CustomerBulkRegistrationDTO.Status.FAILED;
+        }
+
+        synchronized int processed() {
+            return outcomes.size();
+        }
+
+        synchronized CustomerBulkRegistrationDTO snapshot() {
+            return new CustomerBulkRegistrationDTO(
+                    id, status, total, outcomes.size(), error, List.copyOf(outcomes));
+        }
+    }
+}
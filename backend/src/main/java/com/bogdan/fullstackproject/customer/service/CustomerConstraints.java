@@ -0,0 +1,36 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import io.r2dbc.spi.R2dbcException;
+
+import java.sql.SQLException;
+
+/**
+ * Recognizes violations of the customer_email_unique index behind a DataIntegrityViolationException,
+ * shared by CustomerService and ReactiveCustomerService. Other integrity violations (check
+ * constraints, NOT NULL, other indexes) are not a taken email and have to surface unchanged.
+ * ===
+ * PostgreSQL reports a unique violation as SQLState 23505 and names the index in the message,
+ * both through JDBC (SQLException) and R2DBC (R2dbcException).
+ */
+
+final class CustomerConstraints {
+
+    private static final String EMAIL_UNIQUE = "customer_email_unique";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private CustomerConstraints() {
+    }
+
+    static boolean isEmailTaken(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            String sqlState = cause instanceof SQLException sql ? sql.getSQLState()
+                    : cause instanceof R2dbcException r2dbc ? r2dbc.getSqlState()
+                    : null;
+            if (UNIQUE_VIOLATION.equals(sqlState)) {
+                return cause.getMessage() != null && cause.getMessage().contains(EMAIL_UNIQUE);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerSortField;
+import com.bogdan.fullstackproject.exception.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for paging through customers. The cursor wraps the id of the
+ * last customer returned, so the next page is read with `WHERE id > ? ORDER BY id LIMIT ?`,
+ * which is an index range scan on the primary key no matter how deep the client goes.
+ * ===
+ * Search results are ranked by relevance, which has no stable key to continue from, so their
+ * cursor wraps the offset of the next page instead.
+ * ===
+ * Filtered and sorted pages wrap the full sort key of the last row, id plus the name or age it
+ * was sorted by, so the next page continues with `WHERE (name, id) > (?, ?)`.
+ */
+
+final class CustomerCursor {
+
+    private static final String PREFIX = "id:";
+
+    private static final String OFFSET_PREFIX = "offset:";
+
+    private static final String KEY_PREFIX = "key:";
+
+    private CustomerCursor() {
+    }
+
+    static String encode(Integer customerId) {
+        return encode(PREFIX, customerId);
+    }
+
+    static Integer decode(String cursor) {
+        return decode(PREFIX, cursor);
+    }
+
+    static String encodeOffset(int offset) {
+        return encode(OFFSET_PREFIX, offset);
+    }
+
+    static int decodeOffset(String cursor) {
+        int offset = decode(OFFSET_PREFIX, cursor);
+        if (offset < 0) {
+            throw new RequestValidationException("Invalid cursor [%s]".formatted(cursor));
+        }
+        return offset;
+    }
+
+    static String encodeKey(Customer last, CustomerSortField sortBy) {
+        String value = switch (sortBy) {
+            case ID -> "";
+            case NAME -> last.getName();
+            case AGE -> String.valueOf(last.getAge());
+        };
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((KEY_PREFIX + last.getId() + ":" + value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CustomerQuery.After decodeKey(String cursor, CustomerSortField sortBy) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(KEY_PREFIX)) {
+                throw new RequestValidationException("Invalid cursor [%s]".formatted(cursor));
+            }
+            // The name may contain ':' itself, so only split off the id
+            String[] parts = value.substring(KEY_PREFIX.length()).split(":", 2);
+            Integer id = Integer.valueOf(parts[0]);
+            String sortValue = parts.length > 1 ? parts[1] : "";
+            return switch (sortBy) {
+                case ID -> new CustomerQuery.After(id, null, null);
+                case NAME -> new CustomerQuery.After(id, sortValue, null);
+                case AGE -> new CustomerQuery.After(id, null, Integer.valueOf(sortValue));
+            };
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("Invalid cursor [%s]".formatted(cursor));
+        }
+    }
+
+    private static String encode(String prefix, Integer value) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((prefix + value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Integer decode(String prefix, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(prefix)) {
+                throw new RequestValidationException("Invalid cursor [%s]".formatted(cursor));
+            }
+            return Integer.valueOf(value.substring(prefix.length()));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("Invalid cursor [%s]".formatted(cursor));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerDao;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Service;
+
+/**
+ * DaoAuthenticationProvider calls updatePassword after a successful login when the stored hash
+ * was made with a different BCrypt strength than the current one.
+ * ===
+ * The new hash is written on the application task executor, after the login has returned, so a
+ * rehash adds no database write to the login. If the write is lost (rejected task, failed update),
+ * the old hash stays valid and the rehash simply happens again on the next login.
+ */
+
+@Service
+public class CustomerPasswordRehashService implements UserDetailsPasswordService {
+
+    private final CustomerDao customerDao;
+
+    private final CustomerUserDetailsService customerUserDetailsService;
+
+    private final TaskExecutor taskExecutor;
+
+    public CustomerPasswordRehashService(@Qualifier("jpa") CustomerDao customerDao,
+                                         CustomerUserDetailsService customerUserDetailsService,
+                                         @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.customerDao = customerDao;
+        this.customerUserDetailsService = customerUserDetailsService;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Customer customer = (Customer) user;
+        Integer customerId = customer.getId();
+
+        try {
+            taskExecutor.execute(() -> {
+                if (customerDao.updateCustomerPassword(customerId, newPassword)) {
+                    customerUserDetailsService.evictCustomer(customerId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Retried on the next login
+        }
+
+        return new Customer(customerId, customer.getName(), customer.getEmail(),
+                newPassword, customer.getAge(), customer.getGender());
+    }
+}
@@ -0,0 +1,58 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerSortField;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import com.bogdan.fullstackproject.exception.RequestValidationException;
+
+import java.util.Locale;
+
+/**
+ * Parses and validates the request parameters of a filtered customer page into a CustomerQuery,
+ * shared by CustomerService and ReactiveCustomerService.
+ */
+
+final class CustomerQueries {
+
+    private CustomerQueries() {
+    }
+
+    static CustomerQuery of(String gender, Integer minAge, Integer maxAge, String sort, String after, int limit) {
+        if ((minAge != null && minAge < 0) || (maxAge != null && maxAge < 0)
+                || (minAge != null && maxAge != null && minAge > maxAge)) {
+            throw new RequestValidationException("Invalid age range [%s, %s]".formatted(minAge, maxAge));
+        }
+
+        CustomerSortField sortBy = CustomerSortField.ID;
+        boolean descending = false;
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.split(",");
+            try {
+                sortBy = CustomerSortField.of(parts[0]);
+            } catch (IllegalArgumentException e) {
+                throw new RequestValidationException("Invalid sort [%s]".formatted(sort));
+            }
+            if (parts.length > 1) {
+                String direction = parts[1].trim();
+                if (!direction.equalsIgnoreCase("asc") && !direction.equalsIgnoreCase("desc")) {
+                    throw new RequestValidationException("Invalid sort [%s]".formatted(sort));
+                }
+                descending = direction.equalsIgnoreCase("desc");
+            }
+        }
+
+        return new CustomerQuery(parseGender(gender), minAge, maxAge, sortBy, descending,
+                CustomerCursor.decodeKey(after, sortBy), limit);
+    }
+
+    private static Gender parseGender(String gender) {
+        if (gender == null || gender.isBlank()) {
+            return null;
+        }
+        try {
+            return Gender.valueOf(gender.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("Invalid gender [%s]".formatted(gender));
+        }
+    }
+}
@@ -2,16 +2,22 @@ package com.bogdan.fullstackproject.customer.service;
 
 import com.bogdan.fullstackproject.customer.dao.CustomerDao;
 import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
+import com.bogdan.fullstackproject.customer.dto.CustomerPageDTO;
+import com.bogdan.fullstackproject.customer.dto.VersionedCustomerDTO;
 import com.bogdan.fullstackproject.customer.mapper.CustomerMapper;
 import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
 import com.bogdan.fullstackproject.customer.model.CustomerRegistrationRequest;
 import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
 import com.bogdan.fullstackproject.exception.DuplicateResourceException;
+import com.bogdan.fullstackproject.exception.PreconditionFailedException;
 import com.bogdan.fullstackproject.exception.RequestValidationException;
 import com.bogdan.fullstackproject.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,19 +25,35 @@ import java.util.stream.Collectors;
 @Service
 public class CustomerService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    // Relevance ranking is paged by offset, so deep pages are cut off to keep every page cheap
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
+    private static final int MIN_SEARCH_QUERY_LENGTH = 3;
+
+    private static final int MAX_SEARCH_QUERY_LENGTH = 100;
+
     private final CustomerDao customerDao;
 
     private final CustomerMapper customerMapper;
 
     private final PasswordEncoder passwordEncoder;
 
+    private final CustomerUserDetailsService customerUserDetailsService;
+
     public CustomerService(@Qualifier("jpa") CustomerDao customerDao,
-                           CustomerMapper customerMapper, PasswordEncoder passwordEncoder) {
+                           CustomerMapper customerMapper, PasswordEncoder passwordEncoder,
+                           CustomerUserDetailsService customerUserDetailsService) {
         this.customerDao = customerDao;
         this.customerMapper = customerMapper;
         this.passwordEncoder = passwordEncoder;
+        this.customerUserDetailsService = customerUserDetailsService;
     }
 
+    @Transactional(readOnly = true)
     public List<CustomerDTO> getAllCustomers() {
         return customerDao.selectAllCustomers()
                 .stream()
@@ -39,19 +61,127 @@ public class CustomerService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Keyset page of the customers matching the filters, ordered by `sort` ("name", "age" or "id",
+     * optionally followed by ",desc"). Filtering, ordering and the page limit all run in the database.
+     */
+    @Transactional(readOnly = true)
+    public CustomerPageDTO queryCustomers(String gender, Integer minAge, Integer maxAge,
+                                          String sort, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new RequestValidationException(
+                    "Page limit must be between 1 and %s".formatted(MAX_PAGE_SIZE));
+        }
+
+        // Read one extra row to know whether another page exists without a count query
+        CustomerQuery query = CustomerQueries.of(gender, minAge, maxAge, sort, after, limit + 1);
+        List<Customer> customers = customerDao.selectCustomers(query);
+
+        String nextCursor = null;
+        if (customers.size() > limit) {
+            customers = customers.subList(0, limit);
+            nextCursor = CustomerCursor.encodeKey(customers.get(limit - 1), query.sortBy());
+        }
+
+        return new CustomerPageDTO(
+                customers.stream()
+                        .map(customerMapper)
+                        .collect(Collectors.toList()),
+                nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerPageDTO getCustomersPage(String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new RequestValidationException(
+                    "Page limit must be between 1 and %s".formatted(MAX_PAGE_SIZE));
+        }
+
+        // Read one extra row to know whether another page exists without a count query
+        List<Customer> customers = customerDao.selectCustomersAfter(CustomerCursor.decode(after), limit + 1);
+
+        String nextCursor = null;
+        if (customers.size() > limit) {
+            customers = customers.subList(0, limit);
+            nextCursor = CustomerCursor.encode(customers.get(limit - 1).getId());
+        }
+
+        return new CustomerPageDTO(
+                customers.stream()
+                        .map(customerMapper)
+                        .collect(Collectors.toList()),
+                nextCursor);
+    }
+
+    /**
+     * Fuzzy, partial search on name and email, best matches first. Pages hold at most
+     * {@value #MAX_SEARCH_PAGE_SIZE} customers and the cursor stops after the first
+     * {@value #MAX_SEARCH_RESULTS} matches: anyone paging that far should refine the query.
+     */
+    @Transactional(readOnly = true)
+    public CustomerPageDTO searchCustomers(String query, String after, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.length() < MIN_SEARCH_QUERY_LENGTH || trimmed.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new RequestValidationException("Search query must be between %s and %s characters"
+                    .formatted(MIN_SEARCH_QUERY_LENGTH, MAX_SEARCH_QUERY_LENGTH));
+        }
+        if (limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+            throw new RequestValidationException(
+                    "Page limit must be between 1 and %s".formatted(MAX_SEARCH_PAGE_SIZE));
+        }
+
+        int offset = CustomerCursor.decodeOffset(after);
+        int pageSize = Math.min(limit, MAX_SEARCH_RESULTS - offset);
+        if (pageSize <= 0) {
+            return new CustomerPageDTO(List.of(), null);
+        }
+
+        // Read one extra row to know whether another page exists without a count query
+        List<Customer> customers = customerDao.searchCustomers(trimmed, offset, pageSize + 1);
+
+        String nextCursor = null;
+        if (customers.size() > pageSize) {
+            customers = customers.subList(0, pageSize);
+            if (offset + pageSize < MAX_SEARCH_RESULTS) {
+                nextCursor = CustomerCursor.encodeOffset(offset + pageSize);
+            }
+        }
+
+        return new CustomerPageDTO(
+                customers.stream()
+                        .map(customerMapper)
+                        .collect(Collectors.toList()),
+                nextCursor);
+    }
+
+    /**
+     * Change counter of the whole customer table, for conditional requests on the list: it grows
+     * with every insert, update and delete, so an unchanged value means an unchanged list.
+     */
+    @Transactional(readOnly = true)
+    public long getCustomersVersion() {
+        return customerDao.selectCustomersVersion();
+    }
+
+    @Transactional(readOnly = true)
     public CustomerDTO getCustomer(Integer customerId) {
+        return getVersionedCustomer(customerId).customer();
+    }
+
+    @Transactional(readOnly = true)
+    public VersionedCustomerDTO getVersionedCustomer(Integer customerId) {
         return customerDao.selectCustomerById(customerId)
-                .map(customerMapper)
+                .map(customer -> new VersionedCustomerDTO(customerMapper.apply(customer), customer.getVersion()))
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Customer with id [%s] not found".formatted(customerId)));
     }
 
-    public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
-
-        String email = customerRegistrationRequest.email();
-        if (customerDao.existsCustomerWithEmail(email)) {
-            throw new DuplicateResourceException("Email already taken");
-        }
+    /**
+     * Registers the customer with one INSERT ... ON CONFLICT statement. The unique email index
+     * rejects duplicates atomically, so two concurrent sign-ups with the same email cannot both
+     * succeed, and no separate existence check is needed.
+     */
+    public Integer addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
 
         Customer customer = new Customer(
                 customerRegistrationRequest.name(),
@@ -60,47 +190,114 @@ public class CustomerService {
                 customerRegistrationRequest.age(),
                 customerRegistrationRequest.gender());
 
-        customerDao.insertCustomer(customer);
+        return customerDao.insertCustomerIfEmailAbsent(customer)
+                .orElseThrow(() -> new DuplicateResourceException("Email already taken"));
     }
 
+    @Transactional
     public void updateCustomer(Integer customerId, CustomerUpdateRequest updateCustomer) {
 
         Customer customer = customerDao.selectCustomerById(customerId)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Customer with id [%s] not found".formatted(customerId)));
 
-        boolean changes = false;
+        // Only the fields that differ reach the DAO, so the UPDATE sets just those columns. The
+        // loaded customer is left untouched: mutating a managed entity inside the transaction
+        // would make Hibernate flush its own UPDATE on top of the one issued by the DAO
+        String name = null;
+        String email = null;
+        Integer age = null;
 
         if (updateCustomer.name() != null && !updateCustomer.name().equals(customer.getName())) {
-            customer.setName(updateCustomer.name());
-            changes = true;
+            name = updateCustomer.name();
         }
 
         if (updateCustomer.age() != null && !updateCustomer.age().equals(customer.getAge())) {
-            customer.setAge(updateCustomer.age());
-            changes = true;
+            age = updateCustomer.age();
         }
 
         if (updateCustomer.email() != null && !updateCustomer.email().equals(customer.getEmail())) {
-            if (customerDao.existsCustomerWithEmail(updateCustomer.email())) {
+            if (!updateCustomer.email().equalsIgnoreCase(customer.getEmail())
+                    && customerDao.existsCustomerWithEmail(updateCustomer.email())) {
                 throw new DuplicateResourceException("Email already taken");
             }
-            customer.setEmail(updateCustomer.email());
-            changes = true;
+            email = updateCustomer.email();
+        }
+
+        if (name == null && email == null && age == null) {
+            throw new RequestValidationException("No data changes found");
+        }
+
+        if (!customerDao.patchCustomer(customerId, new CustomerUpdateRequest(name, email, age))) {
+            throw new ResourceNotFoundException("Customer with id [%s] not found".formatted(customerId));
+        }
+        customerUserDetailsService.evictCustomer(customerId);
+    }
+
+    /**
+     * Optimistic-locking update: one `UPDATE ... WHERE id = ? AND version = ?` statement, with no
+     * read beforehand and no separate email check. A taken email is reported by the unique email
+     * index; any other integrity violation is rethrown as is. Only when no row matched is the id
+     * looked up, to tell a missing customer (404) from a stale version (412). Returns the new version.
+     */
+    @Transactional
+    public long updateCustomer(Integer customerId, long expectedVersion, CustomerUpdateRequest updateCustomer) {
+
+        if (updateCustomer.name() == null && updateCustomer.email() == null && updateCustomer.age() == null) {
+            throw new RequestValidationException("No data changes found");
+        }
+
+        long version;
+        try {
+            version = customerDao.updateCustomerIfVersion(customerId, expectedVersion, updateCustomer)
+                    .orElseThrow(() -> customerDao.existsCustomerWithId(customerId)
+                            ? new PreconditionFailedException(
+                                    "Customer with id [%s] has been modified".formatted(customerId))
+                            : new ResourceNotFoundException(
+                                    "Customer with id [%s] not found".formatted(customerId)));
+        } catch (DataIntegrityViolationException e) {
+            if (updateCustomer.email() == null || !CustomerConstraints.isEmailTaken(e)) {
+                throw e;
+            }
+            throw new DuplicateResourceException("Email already taken");
         }
 
-        if (!changes) {
+        customerUserDetailsService.evictCustomer(customerId);
+        return version;
+    }
+
+    /**
+     * Applies the non-null fields of the request with a single UPDATE and no read-before-write.
+     * The only extra query is the email ownership check, and only when the email is being changed.
+     */
+    @Transactional
+    public void patchCustomer(Integer customerId, CustomerUpdateRequest patch) {
+
+        if (patch.name() == null && patch.email() == null && patch.age() == null) {
             throw new RequestValidationException("No data changes found");
         }
 
-        customerDao.updateCustomer(customer);
+        if (patch.email() != null) {
+            customerDao.selectUserByEmail(patch.email())
+                    .filter(owner -> !owner.getId().equals(customerId))
+                    .ifPresent(owner -> {
+                        throw new DuplicateResourceException("Email already taken");
+                    });
+        }
+
+        if (!customerDao.patchCustomer(customerId, patch)) {
+            throw new ResourceNotFoundException("Customer with id [%s] not found".formatted(customerId));
+        }
+        customerUserDetailsService.evictCustomer(customerId);
     }
 
+    @Transactional
     public void deleteCustomer(Integer customerId) {
 
         if (!customerDao.existsCustomerWithId(customerId)) {
             throw new ResourceNotFoundException("Customer with id [%s] not found".formatted(customerId));
         }
         customerDao.deleteCustomerById(customerId);
+        customerUserDetailsService.evictCustomer(customerId);
     }
 }
@@ -0,0 +1,38 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerJDBCDataAccessService;
+import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
+import com.bogdan.fullstackproject.customer.mapper.CustomerMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+
+/**
+ * Streams the customer list row by row instead of materializing it as a List.
+ * The read goes through the JDBC data access service on purpose: it can open a
+ * server-side cursor with a fetch size, while the JPA path would keep every loaded
+ * entity in the persistence context for the lifetime of the request.
+ * ===
+ * The method is transactional because PostgreSQL ignores the fetch size in auto-commit mode.
+ */
+
+@Service
+public class CustomerStreamService {
+
+    private static final int FETCH_SIZE = 500;
+
+    private final CustomerJDBCDataAccessService customerDao;
+
+    private final CustomerMapper customerMapper;
+
+    public CustomerStreamService(CustomerJDBCDataAccessService customerDao, CustomerMapper customerMapper) {
+        this.customerDao = customerDao;
+        this.customerMapper = customerMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllCustomers(Consumer<CustomerDTO> consumer) {
+        customerDao.streamAllCustomers(FETCH_SIZE, customer -> consumer.accept(customerMapper.apply(customer)));
+    }
+}
@@ -1,24 +1,93 @@
 package com.bogdan.fullstackproject.customer.service;
 
 import com.bogdan.fullstackproject.customer.dao.CustomerDao;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.datasource.ReplicaRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * The JWT filter resolves the principal on every authenticated request, so loaded principals
+ * are kept in a bounded cache keyed by the lower-cased email. Entries expire after
+ * `cache.principal.time-to-live` and are evicted explicitly when CustomerService changes or
+ * deletes the customer.
+ * ===
+ * The cache holds detached copies, never the entity instance of the request that loaded it.
+ * ===
+ * Misses are read from the primary: registration does not pin the new customer's reads (there is
+ * no principal yet), so a login right after it could otherwise miss the row on a lagging replica.
+ */
 
 @Service
 public class CustomerUserDetailsService implements UserDetailsService {
 
     private final CustomerDao customerDao;
 
-    public CustomerUserDetailsService(@Qualifier("jpa") CustomerDao customerDao) {
+    private final Cache<String, Customer> principals;
+
+    public CustomerUserDetailsService(@Qualifier("jpa") CustomerDao customerDao,
+                                      @Value("${cache.principal.maximum-size}") long maximumSize,
+                                      @Value("${cache.principal.time-to-live}") Duration timeToLive) {
         this.customerDao = customerDao;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return customerDao.selectUserByEmail(username).orElseThrow(() ->
-                new UsernameNotFoundException("Username " + username + " not found"));
+        String key = username.toLowerCase(Locale.ROOT);
+
+        Customer cached = principals.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Customer customer = ReplicaRoutingDataSource.readFromPrimary(() -> customerDao.selectUserByEmail(username))
+                .map(CustomerUserDetailsService::detachedCopy)
+                .orElseThrow(() -> new UsernameNotFoundException("Username " + username + " not found"));
+
+        principals.put(key, customer);
+        return customer;
+    }
+
+    /**
+     * Drops every cached principal of the customer. When called inside a transaction, the eviction
+     * is repeated after commit so a concurrent request cannot re-cache the pre-commit state.
+     * The scan is bounded by the cache size and only runs on writes.
+     */
+    public void evictCustomer(Integer customerId) {
+        evictNow(customerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(customerId);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Integer customerId) {
+        principals.asMap().values().removeIf(customer -> customerId.equals(customer.getId()));
+    }
+
+    private static Customer detachedCopy(Customer customer) {
+        return new Customer(customer.getId(), customer.getName(), customer.getEmail(),
+                customer.getPassword(), customer.getAge(), customer.getGender());
     }
 }
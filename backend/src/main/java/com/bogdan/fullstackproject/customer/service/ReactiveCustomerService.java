@@ -0,0 +1,250 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.dao.ReactiveCustomerDao;
+import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
+import com.bogdan.fullstackproject.customer.dto.CustomerPageDTO;
+import com.bogdan.fullstackproject.customer.dto.VersionedCustomerDTO;
+import com.bogdan.fullstackproject.customer.mapper.CustomerMapper;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerRegistrationRequest;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
+import com.bogdan.fullstackproject.exception.DuplicateResourceException;
+import com.bogdan.fullstackproject.exception.PreconditionFailedException;
+import com.bogdan.fullstackproject.exception.RequestValidationException;
+import com.bogdan.fullstackproject.exception.ResourceNotFoundException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Reactive counterpart of CustomerService for the reactive profile, with the same rules and
+ * error messages. Nothing here blocks an event-loop thread: database access goes through
+ * ReactiveCustomerDao and the BCrypt hash runs on the bounded-elastic scheduler.
+ */
+
+@Service
+@Profile("reactive")
+public class ReactiveCustomerService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
+    private static final int MIN_SEARCH_QUERY_LENGTH = 3;
+
+    private static final int MAX_SEARCH_QUERY_LENGTH = 100;
+
+    private final ReactiveCustomerDao customerDao;
+
+    private final CustomerMapper customerMapper;
+
+    private final PasswordEncoder passwordEncoder;
+
+    public ReactiveCustomerService(ReactiveCustomerDao customerDao, CustomerMapper customerMapper,
+                                   PasswordEncoder passwordEncoder) {
+        this.customerDao = customerDao;
+        this.customerMapper = customerMapper;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    public Flux<CustomerDTO> getAllCustomers() {
+        return customerDao.selectAllCustomers()
+                .map(customerMapper);
+    }
+
+    public Mono<CustomerPageDTO> getCustomersPage(String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.error(new RequestValidationException(
+                    "Page limit must be between 1 and %s".formatted(MAX_PAGE_SIZE)));
+        }
+
+        // Read one extra row to know whether another page exists without a count query
+        return Mono.fromCallable(() -> CustomerCursor.decode(after))
+                .flatMapMany(afterId -> customerDao.selectCustomersAfter(afterId, limit + 1))
+                .collectList()
+                .map(customers -> {
+                    String nextCursor = null;
+                    List<Customer> page = customers;
+                    if (customers.size() > limit) {
+                        page = customers.subList(0, limit);
+                        nextCursor = CustomerCursor.encode(page.get(limit - 1).getId());
+                    }
+                    return new CustomerPageDTO(page.stream().map(customerMapper).toList(), nextCursor);
+                });
+    }
+
+    public Mono<CustomerPageDTO> queryCustomers(String gender, Integer minAge, Integer maxAge,
+                                                String sort, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.error(new RequestValidationException(
+                    "Page limit must be between 1 and %s".formatted(MAX_PAGE_SIZE)));
+        }
+
+        // Read one extra row to know whether another page exists without a count query
+        return Mono.fromCallable(() -> CustomerQueries.of(gender, minAge, maxAge, sort, after, limit + 1))
+                .flatMap(query -> customerDao.selectCustomers(query)
+                        .collectList()
+                        .map(customers -> {
+                            String nextCursor = null;
+                            List<Customer> page = customers;
+                            if (customers.size() > limit) {
+                                page = customers.subList(0, limit);
+                                nextCursor = CustomerCursor.encodeKey(page.get(limit - 1), query.sortBy());
+                            }
+                            return new CustomerPageDTO(page.stream().map(customerMapper).toList(), nextCursor);
+                        }));
+    }
+
+    public Mono<CustomerPageDTO> searchCustomers(String query, String after, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.length() < MIN_SEARCH_QUERY_LENGTH || trimmed.length() > MAX_SEARCH_QUERY_LENGTH) {
+            return Mono.error(new RequestValidationException("Search query must be between %s and %s characters"
+                    .formatted(MIN_SEARCH_QUERY_LENGTH, MAX_SEARCH_QUERY_LENGTH)));
+        }
+        if (limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+            return Mono.error(new RequestValidationException(
+                    "Page limit must be between 1 and %s".formatted(MAX_SEARCH_PAGE_SIZE)));
+        }
+
+        return Mono.fromCallable(() -> CustomerCursor.decodeOffset(after))
+                .flatMap(offset -> {
+                    int pageSize = Math.min(limit, MAX_SEARCH_RESULTS - offset);
+                    if (pageSize <= 0) {
+                        return Mono.just(new CustomerPageDTO(List.of(), null));
+                    }
+                    return customerDao.searchCustomers(trimmed, offset, pageSize + 1)
+                            .collectList()
+                            .map(customers -> {
+                                String nextCursor = null;
+                                List<Customer> page = customers;
+                                if (customers.size() > pageSize) {
+                                    page = customers.subList(0, pageSize);
+                                    if (offset + pageSize < MAX_SEARCH_RESULTS) {
+                                        nextCursor = CustomerCursor.encodeOffset(offset + pageSize);
+                                    }
+                                }
+                                return new CustomerPageDTO(page.stream().map(customerMapper).toList(), nextCursor);
+                            });
+                });
+    }
+
+    public Mono<Long> getCustomersVersion() {
+        return customerDao.selectCustomersVersion();
+    }
+
+    public Mono<CustomerDTO> getCustomer(Integer customerId) {
+        return getVersionedCustomer(customerId)
+                .map(VersionedCustomerDTO::customer);
+    }
+
+    public Mono<VersionedCustomerDTO> getVersionedCustomer(Integer customerId) {
+        return customerDao.selectCustomerById(customerId)
+                .map(customer -> new VersionedCustomerDTO(customerMapper.apply(customer), customer.getVersion()))
+                .switchIfEmpty(Mono.error(() ->
+                        new ResourceNotFoundException("Customer with id [%s] not found".formatted(customerId))));
+    }
+
+    public Mono<Integer> addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(customerRegistrationRequest.password()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(encodedPassword -> new Customer(
+                        customerRegistrationRequest.name(),
+                        customerRegistrationRequest.email(),
+                        encodedPassword,
+                        customerRegistrationRequest.age(),
+                        customerRegistrationRequest.gender()))
+                .flatMap(customerDao::insertCustomerIfEmailAbsent)
+                .switchIfEmpty(Mono.error(() -> new DuplicateResourceException("Email already taken")));
+    }
+
+    public Mono<Void> updateCustomer(Integer customerId, CustomerUpdateRequest updateCustomer) {
+        return customerDao.selectCustomerById(customerId)
+                .switchIfEmpty(Mono.error(() ->
+                        new ResourceNotFoundException("Customer with id [%s] not found".formatted(customerId))))
+                .flatMap(customer -> {
+                    // Only the fields that differ reach the DAO, so the UPDATE sets just those columns
+                    String name = null;
+                    String email = null;
+                    Integer age = null;
+
+                    if (updateCustomer.name() != null && !updateCustomer.name().equals(customer.getName())) {
+                        name = updateCustomer.name();
+                    }
+
+                    if (updateCustomer.age() != null && !updateCustomer.age().equals(customer.getAge())) {
+                        age = updateCustomer.age();
+                    }
+
+                    Mono<Boolean> emailTaken = Mono.just(false);
+                    if (updateCustomer.email() != null && !updateCustomer.email().equals(customer.getEmail())) {
+                        if (!updateCustomer.email().equalsIgnoreCase(customer.getEmail())) {
+                            emailTaken = customerDao.existsCustomerWithEmail(updateCustomer.email());
+                        }
+                        email = updateCustomer.email();
+                    }
+
+                    if (name == null && email == null && age == null) {
+                        return Mono.<Void>error(new RequestValidationException("No data changes found"));
+                    }
+
+                    CustomerUpdateRequest changes = new CustomerUpdateRequest(name, email, age);
+                    return emailTaken.flatMap(taken -> taken
+                            ? Mono.<Void>error(new DuplicateResourceException("Email already taken"))
+                            : customerDao.patchCustomer(customerId, changes).then());
+                });
+    }
+
+    public Mono<Long> updateCustomer(Integer customerId, long expectedVersion, CustomerUpdateRequest updateCustomer) {
+        if (updateCustomer.name() == null && updateCustomer.email() == null && updateCustomer.age() == null) {
+            return Mono.error(new RequestValidationException("No data changes found"));
+        }
+
+        return customerDao.updateCustomerIfVersion(customerId, expectedVersion, updateCustomer)
+                .onErrorMap(e -> e instanceof DataIntegrityViolationException
+                                && updateCustomer.email() != null
+                                && CustomerConstraints.isEmailTaken(e),
+                        e -> new DuplicateResourceException("Email already taken"))
+                .switchIfEmpty(Mono.defer(() -> customerDao.selectCustomerById(customerId)
+                        .hasElement()
+                        .flatMap(exists -> Mono.<Long>error(exists
+                                ? new PreconditionFailedException(
+                                        "Customer with id [%s] has been modified".formatted(customerId))
+                                : new ResourceNotFoundException(
+                                        "Customer with id [%s] not found".formatted(customerId))))));
+    }
+
+    public Mono<Void> patchCustomer(Integer customerId, CustomerUpdateRequest patch) {
+        if (patch.name() == null && patch.email() == null && patch.age() == null) {
+            return Mono.error(new RequestValidationException("No data changes found"));
+        }
+
+        Mono<Void> emailCheck = patch.email() == null
+                ? Mono.empty()
+                : customerDao.selectUserByEmail(patch.email())
+                        .filter(owner -> !owner.getId().equals(customerId))
+                        .flatMap(owner -> Mono.<Void>error(new DuplicateResourceException("Email already taken")));
+
+        return emailCheck
+                .then(customerDao.patchCustomer(customerId, patch))
+                .flatMap(patched -> patched
+                        ? Mono.<Void>empty()
+                        : Mono.error(new ResourceNotFoundException(
+                                "Customer with id [%s] not found".formatted(customerId))));
+    }
+
+    public Mono<Void> deleteCustomer(Integer customerId) {
+        return customerDao.deleteCustomerById(customerId)
+                .flatMap(deleted -> deleted
+                        ? Mono.<Void>empty()
+                        : Mono.error(new ResourceNotFoundException(
+                                "Customer with id [%s] not found".formatted(customerId))));
+    }
+}
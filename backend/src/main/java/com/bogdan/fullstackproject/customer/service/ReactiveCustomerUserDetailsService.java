@@ -0,0 +1,25 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.dao.ReactiveCustomerDao;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveCustomerUserDetailsService implements ReactiveUserDetailsService {
+
+    private final ReactiveCustomerDao customerDao;
+
+    public ReactiveCustomerUserDetailsService(ReactiveCustomerDao customerDao) {
+        this.customerDao = customerDao;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return customerDao.selectUserByEmail(username)
+                .cast(UserDetails.class);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bogdan.fullstackproject.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers who wrote recently so their reads can be pinned to the primary until the
+ * replicas have caught up. A zero window turns the feature off.
+ * ===
+ * The map only holds principals that wrote within the window; expired entries are dropped
+ * on lookup and swept whenever the map grows past MAX_TRACKED_PRINCIPALS.
+ */
+
+public class ReadYourWritesWindow {
+
+    private static final int MAX_TRACKED_PRINCIPALS = 10_000;
+
+    private final long windowNanos;
+
+    private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesWindow(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(String principal) {
+        if (principal == null || windowNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWrites.put(principal, now);
+        if (lastWrites.size() > MAX_TRACKED_PRINCIPALS) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+
+    public boolean isPinned(String principal) {
+        if (principal == null) {
+            return false;
+        }
+        Long writtenAt = lastWrites.get(principal);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < windowNanos) {
+            return true;
+        }
+        lastWrites.remove(principal, writtenAt);
+        return false;
+    }
+}
@@ -0,0 +1,58 @@
+package com.bogdan.fullstackproject.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Only active when `datasource.replica.urls` is set (comma-separated JDBC urls). Replicas
+ * use the same credentials as the primary. Replaces the auto-configured DataSource with
+ * a routing one, so JPA, JdbcTemplate and Flyway all go through it; Flyway and every other
+ * non-read-only access land on the primary.
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReadYourWritesWindow readYourWritesWindow(
+            @Value("${datasource.replica.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesWindow(window);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 @Value("#{'${datasource.replica.urls}'.split(',')}") List<String> replicaUrls,
+                                 ReadYourWritesWindow readYourWritesWindow) {
+        DataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+
+        List<DataSource> replicas = replicaUrls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> (DataSource) DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .driverClassName(properties.determineDriverClassName())
+                        .url(url)
+                        .username(properties.determineUsername())
+                        .password(properties.determinePassword())
+                        .build())
+                .toList();
+
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replicas, readYourWritesWindow));
+    }
+}
@@ -0,0 +1,141 @@
+package com.bogdan.fullstackproject.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * AbstractRoutingDataSource picks the target DataSource every time a connection is requested.
+ * Read-only transactions go to the replicas (round-robin), everything else goes to the primary.
+ * ===
+ * A read-write transaction records the current principal in the ReadYourWritesWindow once it
+ * commits; a rolled-back one changed nothing and records nothing. Until the window expires, that
+ * principal's read-only transactions stay on the primary too, so a customer never reads a stale
+ * copy of their own update from a lagging replica. The window is measured from the commit, not
+ * from the connection fetch, so a long transaction does not use up its own window.
+ * ===
+ * Reads that must see writes made by another request or before any principal existed, such as
+ * the credential lookup of a customer who registered a moment ago, run inside readFromPrimary.
+ * ===
+ * The routing decision depends on the transaction's read-only flag, which Spring sets only after
+ * the transaction manager has asked for a connection. This DataSource must therefore be wrapped
+ * in a LazyConnectionDataSourceProxy, which delays fetching the physical connection until the
+ * first statement runs.
+ */
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final List<String> replicaKeys = new ArrayList<>();
+
+    private final ReadYourWritesWindow readYourWritesWindow;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    ReadYourWritesWindow readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            targets.put(key, replicas.get(i));
+            replicaKeys.add(key);
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+
+        String principal = currentPrincipal();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit(principal);
+            return PRIMARY;
+        }
+
+        if (replicaKeys.isEmpty() || PRIMARY_READS.get() != null || readYourWritesWindow.isPinned(principal)) {
+            return PRIMARY;
+        }
+
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+
+    /**
+     * Runs the read on the primary even inside a read-only transaction. Only connections fetched
+     * while it runs are affected; with the LazyConnectionDataSourceProxy that is the first
+     * statement of the transaction, not its begin.
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        Boolean outer = PRIMARY_READS.get();
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (outer == null) {
+                PRIMARY_READS.remove();
+            }
+        }
+    }
+
+    private void recordWriteOnCommit(String principal) {
+        if (principal == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            readYourWritesWindow.recordWrite(principal);
+            return;
+        }
+        // A transaction can fetch more than one connection; one record per commit is enough
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof RecordWriteOnCommit) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new RecordWriteOnCommit(principal));
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private final class RecordWriteOnCommit implements TransactionSynchronization {
+
+        private final String principal;
+
+        private RecordWriteOnCommit(String principal) {
+            this.principal = principal;
+        }
+
+        @Override
+        public void afterCommit() {
+            readYourWritesWindow.recordWrite(principal);
+        }
+    }
+}
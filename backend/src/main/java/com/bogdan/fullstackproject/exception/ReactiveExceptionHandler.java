@@ -0,0 +1,105 @@
+package com.bogdan.fullstackproject.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reactive counterpart of DefaultExceptionHandler: the functional routes and the security filter
+ * chain of the reactive profile propagate their errors here, and they are rendered as the same
+ * ApiError body with the same status codes as on the servlet stack.
+ * ===
+ * Ordered before Spring Boot's DefaultErrorWebExceptionHandler (-1), which would otherwise render
+ * its own error format.
+ */
+
+@Component
+@Profile("reactive")
+@Order(-2)
+public class ReactiveExceptionHandler implements WebExceptionHandler {
+
+    private final ObjectMapper objectMapper;
+
+    public ReactiveExceptionHandler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable e) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(e);
+        }
+
+        HttpStatusCode status = statusOf(e);
+        ApiError apiError = new ApiError(
+                exchange.getRequest().getPath().value(),
+                e instanceof ResponseStatusException responseStatusException
+                        ? responseStatusException.getReason()
+                        : e.getMessage(),
+                status.value(),
+                LocalDateTime.now()
+        );
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(apiError);
+        } catch (JsonProcessingException jsonProcessingException) {
+            return Mono.error(e);
+        }
+
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        if (e instanceof PasswordHashingUnavailableException) {
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static HttpStatusCode statusOf(Throwable e) {
+        if (e instanceof ResourceNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (e instanceof DuplicateResourceException) {
+            return HttpStatus.CONFLICT;
+        }
+        if (e instanceof PreconditionFailedException) {
+            return HttpStatus.PRECONDITION_FAILED;
+        }
+        if (e instanceof RequestValidationException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (e instanceof PasswordHashingUnavailableException) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        if (e instanceof BadCredentialsException) {
+            return HttpStatus.UNAUTHORIZED;
+        }
+        if (e instanceof InsufficientAuthenticationException
+                || e instanceof AuthenticationCredentialsNotFoundException
+                || e instanceof AccessDeniedException) {
+            return HttpStatus.FORBIDDEN;
+        }
+        if (e instanceof ResponseStatusException responseStatusException) {
+            return responseStatusException.getStatusCode();
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
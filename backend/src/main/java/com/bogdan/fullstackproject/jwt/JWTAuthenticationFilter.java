@@ -1,11 +1,16 @@
 package com.bogdan.fullstackproject.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,6 +19,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * OncePerRequestFilter is a class in the Spring Security framework that ensures a
@@ -31,18 +38,28 @@ import java.io.IOException;
  * If the subject is not null, it loads the user details using the UserDetailsService.
  * If the JWT is valid for the user, it constructs an UsernamePasswordAuthenticationToken and sets it in the
  * SecurityContextHolder.
+ * ===
+ * Stateless mode (jwt.auth.stateless=true): the principal is a JWTPrincipal built from the verified
+ * claims (subject, customer id, scopes) and the UserDetailsService is never called, so authenticated
+ * requests cost no database query. A deleted or changed customer keeps access until the token expires,
+ * so this mode should be paired with a short jwt.token.expiration.
  */
 
 @Component
+@Profile("!reactive")
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
     private final JWTUtil jwtUtil;
 
     private final UserDetailsService userDetailsService;
 
-    public JWTAuthenticationFilter(JWTUtil jwtUtil, UserDetailsService userDetailsService) {
+    private final boolean stateless;
+
+    public JWTAuthenticationFilter(JWTUtil jwtUtil, UserDetailsService userDetailsService,
+                                   @Value("${jwt.auth.stateless:false}") boolean stateless) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.stateless = stateless;
     }
 
     @Override
@@ -57,11 +74,20 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String jwt = authHeader.substring(7);
-        String subject = jwtUtil.getSubject(jwt);
+
+        if (stateless) {
+            authenticateFromClaims(jwt, request);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Verified once; subject and expiry are read from the same claims
+        Claims claims = jwtUtil.getClaims(jwt);
+        String subject = claims.getSubject();
 
         if (subject != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
-            if (jwtUtil.isTokenValid(jwt, userDetails.getUsername())) {
+            if (jwtUtil.isTokenValid(claims, userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities()
                 );
@@ -73,4 +99,35 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    private void authenticateFromClaims(String jwt, HttpServletRequest request) {
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            return;
+        }
+
+        // Parsing verifies the signature and rejects expired tokens
+        Claims claims = jwtUtil.getClaims(jwt);
+        if (claims.getSubject() == null) {
+            return;
+        }
+
+        List<GrantedAuthority> authorities = scopes(claims);
+        JWTPrincipal principal = new JWTPrincipal(
+                claims.get(JWTUtil.CUSTOMER_ID_CLAIM, Integer.class), claims.getSubject(), authorities);
+
+        UsernamePasswordAuthenticationToken authenticationToken =
+                new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+    }
+
+    static List<GrantedAuthority> scopes(Claims claims) {
+        if (!(claims.get(JWTUtil.SCOPES_CLAIM) instanceof Collection<?> scopes)) {
+            return List.of();
+        }
+        return scopes.stream()
+                .map(scope -> (GrantedAuthority) new SimpleGrantedAuthority(scope.toString()))
+                .toList();
+    }
 }
@@ -0,0 +1,23 @@
+package com.bogdan.fullstackproject.jwt;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Lightweight principal built only from verified token claims, used in stateless mode
+ * instead of loading the Customer entity (and its password hash) from the database.
+ */
+
+public record JWTPrincipal(
+        Integer customerId,
+        String username,
+        List<GrantedAuthority> authorities
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
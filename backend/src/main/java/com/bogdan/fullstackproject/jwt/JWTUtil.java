@@ -1,48 +1,102 @@
 package com.bogdan.fullstackproject.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import static java.time.temporal.ChronoUnit.MILLIS;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The signing key and the parser are built once: both are immutable and thread-safe, while
+ * deriving the key and building a parser for every call showed up on every authenticated request.
+ * ===
+ * getClaims(token) is the single verification entry point: it checks the signature and the expiry
+ * once and returns the claims, so callers read the subject and any other claim from that result
+ * instead of parsing the token again.
+ * ===
+ * With `jwt.verified-cache.maximum-size` above zero, verified claims are also cached under the
+ * SHA-256 of the token until the token's own expiry, so a client repeating the same token skips
+ * Base64/JSON decoding and the HMAC check.
+ */
 
 @Component
 public class JWTUtil {
 
-    @Value("${jwt.token.secret}")
-    private String SECRET_KEY;
+    public static final String SCOPES_CLAIM = "scopes";
+
+    public static final String CUSTOMER_ID_CLAIM = "cid";
+
+    private final SecretKey signingKey;
+
+    private final JwtParser parser;
+
+    // Keep it short when jwt.auth.stateless is on: expiry is then the only way a token gets revoked
+    private final Duration expiration;
 
-    private static final long EXPIRE_DURATION = 24 * 60 * 60 * 1000; // 24 hour
+    private final Cache<ByteBuffer, Claims> verifiedTokens;
+
+    public JWTUtil(@Value("${jwt.token.secret}") String secretKey,
+                   @Value("${jwt.token.expiration:24h}") Duration expiration,
+                   @Value("${jwt.verified-cache.maximum-size:0}") long verifiedCacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.expiration = expiration;
+        this.verifiedTokens = verifiedCacheSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(verifiedCacheSize)
+                        .expireAfter(new UntilTokenExpiry())
+                        .build()
+                : null;
+    }
 
     public String generateAccessToken(String subject) {
         return generateAccessToken(subject, Map.of());
     }
 
     public String generateAccessToken(String subject, String ...scopes) {
-        return generateAccessToken(subject, Map.of("scopes", scopes));
+        return generateAccessToken(subject, Map.of(SCOPES_CLAIM, scopes));
     }
 
     public String generateAccessToken(String subject, List<String> scopes) {
-        return generateAccessToken(subject, Map.of("scopes", scopes));
+        return generateAccessToken(subject, Map.of(SCOPES_CLAIM, scopes));
+    }
+
+    public String generateAccessToken(String subject, Integer customerId, List<String> scopes) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(SCOPES_CLAIM, scopes);
+        claims.put(CUSTOMER_ID_CLAIM, customerId);
+        return generateAccessToken(subject, claims);
     }
 
     public String generateAccessToken(String subject, Map<String, Object> claims) {
+        Instant now = Instant.now();
 
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
                 .issuer("bogdash")
-                .issuedAt(Date.from(Instant.now()))
-                .expiration(Date.from(Instant.now().plus(EXPIRE_DURATION, MILLIS)))
-                .signWith(getSigningKey())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(expiration)))
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -50,27 +104,67 @@ public class JWTUtil {
         return getClaims(token).getSubject();
     }
 
-    private Claims getClaims(String token) {
-
-        return Jwts
-                .parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Verifies the signature and expiry of the token and returns its claims.
+     * Throws a JwtException (e.g. ExpiredJwtException) when the token is not valid.
+     */
+    public Claims getClaims(String token) {
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+
+        ByteBuffer key = sha256(token);
+        Claims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parse(token);
+        verifiedTokens.put(key, claims);
+        return claims;
     }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private Claims parse(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public boolean isTokenValid(String jwt, String username) {
-        String subject = getSubject(jwt);
-        return subject.equals(username) && !isTokenExpired(jwt);
+        return isTokenValid(getClaims(jwt), username);
     }
 
-    private boolean isTokenExpired(String jwt) {
-        Date today = Date.from(Instant.now());
-        return getClaims(jwt).getExpiration().before(today);
+    public boolean isTokenValid(Claims claims, String username) {
+        return claims.getSubject().equals(username) && !isTokenExpired(claims);
+    }
+
+    private static boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
+    }
+
+    private static ByteBuffer sha256(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, Claims> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+            long millis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,88 @@
+package com.bogdan.fullstackproject.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.List;
+
+/**
+ * WebFilter counterpart of JWTAuthenticationFilter for the reactive profile. The token is verified
+ * once with JWTUtil (an in-memory HMAC check, cheap enough for the event loop) and the resulting
+ * Authentication is written into the Reactor context, where ReactiveSecurityContextHolder and the
+ * authorization filter read it.
+ * ===
+ * By default the principal is loaded through the ReactiveUserDetailsService; with
+ * jwt.auth.stateless=true it is a JWTPrincipal built from the claims, as in the servlet filter.
+ * A missing, malformed or expired token leaves the exchange unauthenticated.
+ */
+
+@Component
+@Profile("reactive")
+public class ReactiveJWTAuthenticationFilter implements WebFilter {
+
+    private final JWTUtil jwtUtil;
+
+    private final ReactiveUserDetailsService userDetailsService;
+
+    private final boolean stateless;
+
+    public ReactiveJWTAuthenticationFilter(JWTUtil jwtUtil, ReactiveUserDetailsService userDetailsService,
+                                           @Value("${jwt.auth.stateless:false}") boolean stateless) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.stateless = stateless;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        Claims claims;
+        try {
+            claims = jwtUtil.getClaims(authHeader.substring(7));
+        } catch (JwtException e) {
+            return chain.filter(exchange);
+        }
+
+        if (claims.getSubject() == null) {
+            return chain.filter(exchange);
+        }
+
+        return authenticate(claims)
+                .map(ReactiveSecurityContextHolder::withAuthentication)
+                .defaultIfEmpty(Context.empty())
+                .flatMap(context -> chain.filter(exchange).contextWrite(context));
+    }
+
+    private Mono<Authentication> authenticate(Claims claims) {
+        if (stateless) {
+            List<GrantedAuthority> authorities = JWTAuthenticationFilter.scopes(claims);
+            JWTPrincipal principal = new JWTPrincipal(
+                    claims.get(JWTUtil.CUSTOMER_ID_CLAIM, Integer.class), claims.getSubject(), authorities);
+            return Mono.just(new UsernamePasswordAuthenticationToken(principal, null, authorities));
+        }
+
+        return userDetailsService.findByUsername(claims.getSubject())
+                .filter(userDetails -> jwtUtil.isTokenValid(claims, userDetails.getUsername()))
+                .map(userDetails -> new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()));
+    }
+}
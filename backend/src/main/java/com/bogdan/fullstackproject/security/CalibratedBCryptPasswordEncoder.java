@@ -0,0 +1,79 @@
+package com.bogdan.fullstackproject.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * BCryptPasswordEncoder with a strength chosen for the hardware it runs on: calibrated(target)
+ * hashes a sample password at increasing strengths and keeps the highest one whose hash time
+ * stays within the target, never going below the BCrypt default of 10.
+ * ===
+ * upgradeEncoding reports every hash stored with a different strength (not only a lower one),
+ * so DaoAuthenticationProvider re-encodes it through UserDetailsPasswordService on the next
+ * successful login.
+ */
+
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    static final int MIN_STRENGTH = 10;
+
+    static final int MAX_STRENGTH = 16;
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public static CalibratedBCryptPasswordEncoder calibrated(Duration targetHashTime) {
+        return new CalibratedBCryptPasswordEncoder(calibrate(targetHashTime));
+    }
+
+    static int calibrate(Duration targetHashTime) {
+        long targetNanos = targetHashTime.toNanos();
+
+        // The first hash pays for class loading and JIT warm-up, so it is not measured
+        hashNanos(MIN_STRENGTH);
+
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && hashNanos(strength + 1) <= targetNanos) {
+            strength++;
+        }
+        return strength;
+    }
+
+    private static long hashNanos(int strength) {
+        long start = System.nanoTime();
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(strength));
+        return System.nanoTime() - start;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int stored = strengthOf(encodedPassword);
+        return stored > 0 && stored != strength;
+    }
+
+    // $2a$10$<salt+hash>: the strength is the two digits after the version prefix
+    static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7
+                || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$'
+                || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword, 4, 6, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
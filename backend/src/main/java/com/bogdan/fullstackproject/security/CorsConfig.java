@@ -3,6 +3,7 @@ package com.bogdan.fullstackproject.security;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -18,6 +19,7 @@ import java.util.List;
  */
 
 @Configuration
+@Profile("!reactive")
 public class CorsConfig implements WebMvcConfigurer {
 
     // List of allowed origins for CORS.
@@ -0,0 +1,96 @@
+package com.bogdan.fullstackproject.security;
+
+import com.bogdan.fullstackproject.jwt.ReactiveJWTAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Security for the reactive profile, mirroring SecurityFilterChainConfig, SecurityConfig and
+ * CorsConfig: same public endpoints, stateless (no security context is stored between requests),
+ * JWT authentication through ReactiveJWTAuthenticationFilter and the same `cors.*` properties.
+ * ===
+ * reactiveAuthenticationManager: authenticates the login request against the
+ * ReactiveUserDetailsService; the password check runs on the bounded-elastic scheduler, never on
+ * the event loop.
+ * ===
+ * Authentication failures are not written here but propagated, so ReactiveExceptionHandler
+ * renders them as ApiError like DelegatedAuthEntryPoint does for the servlet stack.
+ */
+
+@Configuration
+@EnableWebFluxSecurity
+@Profile("reactive")
+public class ReactiveSecurityConfig {
+
+    @Value("#{'${cors.allowed-origins}'.split(',')}")
+    private List<String> allowedOrigins;
+
+    @Value("#{'${cors.allowed-methods}'.split(',')}")
+    private List<String> allowedMethods;
+
+    @Value("#{'${cors.allowed-headers}'.split(',')}")
+    private List<String> allowedHeaders;
+
+    @Value("#{'${cors.exposed-headers}'.split(',')}")
+    private List<String> expectedHeaders;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         ReactiveJWTAuthenticationFilter jwtAuthenticationFilter) {
+        http.csrf(ServerHttpSecurity.CsrfSpec::disable);
+        http.cors(Customizer.withDefaults());
+        http.httpBasic(ServerHttpSecurity.HttpBasicSpec::disable);
+        http.formLogin(ServerHttpSecurity.FormLoginSpec::disable);
+        http.authorizeExchange(authorize -> authorize
+                .pathMatchers(HttpMethod.POST,
+                        "/api/v1/customers",
+                        "/api/v1/auth/login").permitAll()
+                .pathMatchers(HttpMethod.GET, "/actuator/**").permitAll()
+                .anyExchange().authenticated());
+        http.securityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        http.addFilterAt(jwtAuthenticationFilter, SecurityWebFiltersOrder.AUTHENTICATION);
+        http.exceptionHandling(exception -> exception
+                .authenticationEntryPoint((exchange, e) -> Mono.error(e)));
+        return http.build();
+    }
+
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserDetailsService userDetailsService,
+                                                                       PasswordEncoder passwordEncoder) {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        return authenticationManager;
+    }
+
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(allowedOrigins);
+        configuration.setAllowedMethods(allowedMethods);
+        configuration.setAllowedHeaders(allowedHeaders);
+        configuration.setExposedHeaders(expectedHeaders);
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/api/**", configuration);
+        return source;
+    }
+}
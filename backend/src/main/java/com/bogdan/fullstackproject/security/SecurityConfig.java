@@ -1,19 +1,29 @@
 package com.bogdan.fullstackproject.security;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 /**
  * passwordEncoder: This method creates and returns an instance of PasswordEncoder.
  * In this case, BCryptPasswordEncoder is used, which is one of the PasswordEncoder
- * implementations for password hashing.
+ * implementations for password hashing. The strength is `password.bcrypt.strength`, or, when that
+ * is 0, calibrated at startup to hash within `password.bcrypt.target-hash-time`.
+ * It is wrapped in BoundedPasswordEncoder, so hashing runs on `password.hashing.threads` workers
+ * (0 = one per core) with at most `password.hashing.queue-capacity` waiting calls instead of on
+ * the request threads.
  * ===
  * authenticationManager: This method creates and returns an AuthenticationManager.
  * The AuthenticationManager is used to authenticate users. The method uses AuthenticationConfiguration
@@ -27,27 +37,47 @@ import org.springframework.security.crypto.password.PasswordEncoder;
  * ===
  * DaoAuthenticationProvider is an AuthenticationProvider implementation that uses a
  * UserDetailsService and PasswordEncoder to authenticate a username and password.
+ * Its UserDetailsPasswordService re-encodes passwords stored with another BCrypt strength
+ * after a successful login.
  */
 
 @Configuration
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.strength:0}") int strength,
+                                           @Value("${password.bcrypt.target-hash-time:250ms}") Duration targetHashTime,
+                                           @Value("${password.hashing.threads:0}") int threads,
+                                           @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                                           MeterRegistry meterRegistry) {
+        CalibratedBCryptPasswordEncoder bcrypt = strength > 0
+                ? new CalibratedBCryptPasswordEncoder(strength)
+                : CalibratedBCryptPasswordEncoder.calibrated(targetHashTime);
+        Gauge.builder("password.bcrypt.strength", bcrypt, CalibratedBCryptPasswordEncoder::getStrength)
+                .register(meterRegistry);
+
+        return new BoundedPasswordEncoder(
+                bcrypt,
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                queueCapacity,
+                meterRegistry);
     }
 
     @Bean
+    @Profile("!reactive")
     public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
         return configuration.getAuthenticationManager();
     }
 
     @Bean
+    @Profile("!reactive")
     public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                         UserDetailsPasswordService userDetailsPasswordService,
                                                          PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
         daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
         daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return daoAuthenticationProvider;
     }
 }
@@ -3,6 +3,7 @@ package com.bogdan.fullstackproject.security;
 import com.bogdan.fullstackproject.jwt.JWTAuthenticationFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.Customizer;
@@ -36,6 +37,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
  */
 
 @Configuration
+@Profile("!reactive")
 @EnableWebSecurity
 public class SecurityFilterChainConfig {
 
@@ -0,0 +1,127 @@
+package com.bogdan.fullstackproject.slo;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rolling latency histogram built from a ring of fixed time slots. Each slot holds a log-linear
+ * histogram of microsecond latencies (8 sub-buckets per power of two, so a reported percentile is
+ * within 12.5% of the real value) plus a count of requests that missed the SLO.
+ * ===
+ * Recording is lock-free and allocation-free: it picks the slot of the current tick, recycles it
+ * with a CAS when it still holds an older tick, and increments two array cells. Samples recorded
+ * by other threads while a slot is being recycled may be lost; the report is an approximation of
+ * the window, not an exact log.
+ */
+
+final class LatencyWindow {
+
+    static final int BUCKETS = 200;
+
+    // Extra cells after the buckets
+    static final int BAD = BUCKETS;
+
+    private static final int CELLS = BUCKETS + 1;
+
+    private final long slotNanos;
+
+    private final Slot[] slots;
+
+    LatencyWindow(long slotNanos, int slotCount) {
+        this.slotNanos = slotNanos;
+        this.slots = new Slot[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    void record(long nowNanos, long latencyNanos, boolean bad) {
+        long tick = nowNanos / slotNanos;
+        Slot slot = slots[(int) (tick % slots.length)];
+
+        long slotTick = slot.tick.get();
+        if (slotTick != tick) {
+            if (slotTick > tick) {
+                // A thread that read the clock earlier lost the race to a newer tick
+                return;
+            }
+            if (slot.tick.compareAndSet(slotTick, tick)) {
+                for (int i = 0; i < CELLS; i++) {
+                    slot.cells.set(i, 0);
+                }
+            }
+        }
+
+        slot.cells.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (bad) {
+            slot.cells.incrementAndGet(BAD);
+        }
+    }
+
+    /**
+     * Sums the last `slotCount` slots, the current one included, into a fresh array of
+     * {@value #BUCKETS} bucket counts followed by the bad count.
+     */
+    long[] snapshot(long nowNanos, int slotCount) {
+        long tick = nowNanos / slotNanos;
+        long[] cells = new long[CELLS];
+        for (Slot slot : slots) {
+            long slotTick = slot.tick.get();
+            if (slotTick > tick - slotCount && slotTick <= tick) {
+                for (int i = 0; i < CELLS; i++) {
+                    cells[i] += slot.cells.get(i);
+                }
+            }
+        }
+        return cells;
+    }
+
+    static int bucket(long micros) {
+        if (micros < 16) {
+            return (int) Math.max(micros, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int index = 16 + (exponent - 4) * 8 + (int) ((micros >>> (exponent - 3)) & 7);
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    static long upperBoundMicros(int bucket) {
+        if (bucket < 16) {
+            return bucket;
+        }
+        int exponent = (bucket - 16) / 8 + 4;
+        int subBucket = (bucket - 16) % 8;
+        return ((8L + subBucket + 1) << (exponent - 3)) - 1;
+    }
+
+    static long count(long[] cells) {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += cells[i];
+        }
+        return count;
+    }
+
+    static long percentileMicros(long[] cells, long count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += cells[i];
+            if (seen >= rank) {
+                return upperBoundMicros(i);
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1);
+    }
+
+    private static final class Slot {
+
+        private final AtomicLong tick = new AtomicLong(-1);
+
+        private final AtomicLongArray cells = new AtomicLongArray(CELLS);
+    }
+}
@@ -0,0 +1,53 @@
+package com.bogdan.fullstackproject.slo;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Times every request from the outermost filter, so authentication is included, and hands the
+ * result to RouteSloRecorder under the controller mapping pattern (e.g. /api/v1/customers/{customerId}).
+ * Requests that never reached an /api controller (rejected by security, unknown paths, actuator)
+ * are not recorded.
+ */
+
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RouteSloFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/";
+
+    private final RouteSloRecorder recorder;
+
+    public RouteSloFilter(RouteSloRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        // Stays 500 when the chain throws
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String route
+                    && route.startsWith(API_PREFIX)) {
+                recorder.record(request.getMethod(), route, status, System.nanoTime() - start);
+            }
+        }
+    }
+}
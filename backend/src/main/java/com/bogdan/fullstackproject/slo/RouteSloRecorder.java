@@ -0,0 +1,147 @@
+package com.bogdan.fullstackproject.slo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process latency and error-budget tracking per controller route, without a metrics backend.
+ * ===
+ * Every route (HTTP method + mapping pattern) and status class (2xx..5xx) gets its own
+ * LatencyWindow covering the last 15 minutes in {@value #SLOT_SECONDS}-second slots; the 1m, 5m
+ * and 15m windows of the report are summed from those slots. A request is bad when it returns a
+ * 5xx or takes longer than `slo.latency-target`, and the error budget is 1 - `slo.objective`.
+ * ===
+ * Looking up a known route is two ConcurrentHashMap gets, so the hot path does not allocate;
+ * windows are created the first time a route answers with a given status class.
+ */
+
+@Component
+@Profile("!reactive")
+public class RouteSloRecorder {
+
+    static final int SLOT_SECONDS = 15;
+
+    private static final long SLOT_NANOS = Duration.ofSeconds(SLOT_SECONDS).toNanos();
+
+    private static final Map<String, Integer> WINDOWS = Map.of("1m", 4, "5m", 20, "15m", 60);
+
+    private static final List<String> WINDOW_ORDER = List.of("1m", "5m", "15m");
+
+    private final ConcurrentMap<String, ConcurrentMap<String, RouteWindows>> routes = new ConcurrentHashMap<>();
+
+    private final Duration latencyTarget;
+
+    private final long latencyTargetNanos;
+
+    private final double objective;
+
+    private final LongSupplier clock;
+
+    @Autowired
+    public RouteSloRecorder(@Value("${slo.latency-target:250ms}") Duration latencyTarget,
+                            @Value("${slo.objective:0.99}") double objective) {
+        this(latencyTarget, objective, System::nanoTime);
+    }
+
+    RouteSloRecorder(Duration latencyTarget, double objective, LongSupplier clock) {
+        if (objective <= 0 || objective >= 1) {
+            throw new IllegalArgumentException("slo.objective must be between 0 and 1, was " + objective);
+        }
+        this.latencyTarget = latencyTarget;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.objective = objective;
+        long origin = clock.getAsLong();
+        this.clock = () -> clock.getAsLong() - origin;
+    }
+
+    public void record(String method, String route, int status, long latencyNanos) {
+        ConcurrentMap<String, RouteWindows> byMethod = routes.get(route);
+        if (byMethod == null) {
+            byMethod = routes.computeIfAbsent(route, r -> new ConcurrentHashMap<>());
+        }
+        RouteWindows windows = byMethod.get(method);
+        if (windows == null) {
+            windows = byMethod.computeIfAbsent(method, m -> new RouteWindows());
+        }
+
+        int statusClass = Math.min(Math.max(status / 100, 1), 5);
+        boolean bad = statusClass == 5 || latencyNanos > latencyTargetNanos;
+        windows.forStatusClass(statusClass).record(clock.getAsLong(), latencyNanos, bad);
+    }
+
+    public SloReport report() {
+        long now = clock.getAsLong();
+        List<SloReport.Route> report = new ArrayList<>();
+
+        routes.forEach((route, byMethod) -> byMethod.forEach((method, windows) -> {
+            Map<String, SloReport.Window> windowReports = new LinkedHashMap<>();
+            for (String window : WINDOW_ORDER) {
+                windowReports.put(window, windows.report(now, WINDOWS.get(window)));
+            }
+            report.add(new SloReport.Route(method, route, windowReports));
+        }));
+
+        report.sort(Comparator.comparing(SloReport.Route::route).thenComparing(SloReport.Route::method));
+        return new SloReport(latencyTarget, objective, report);
+    }
+
+    private final class RouteWindows {
+
+        // Indexed by status class, 1xx to 5xx
+        private final AtomicReferenceArray<LatencyWindow> byStatusClass = new AtomicReferenceArray<>(6);
+
+        LatencyWindow forStatusClass(int statusClass) {
+            LatencyWindow window = byStatusClass.get(statusClass);
+            if (window == null) {
+                byStatusClass.compareAndSet(statusClass, null, new LatencyWindow(SLOT_NANOS, 61));
+                window = byStatusClass.get(statusClass);
+            }
+            return window;
+        }
+
+        SloReport.Window report(long now, int slotCount) {
+            long requests = 0;
+            long bad = 0;
+            Map<String, SloReport.Latency> statuses = new LinkedHashMap<>();
+
+            for (int statusClass = 1; statusClass <= 5; statusClass++) {
+                LatencyWindow window = byStatusClass.get(statusClass);
+                if (window == null) {
+                    continue;
+                }
+                long[] cells = window.snapshot(now, slotCount);
+                long count = LatencyWindow.count(cells);
+                if (count == 0) {
+                    continue;
+                }
+                requests += count;
+                bad += cells[LatencyWindow.BAD];
+                statuses.put(statusClass + "xx", new SloReport.Latency(
+                        count,
+                        millis(LatencyWindow.percentileMicros(cells, count, 50)),
+                        millis(LatencyWindow.percentileMicros(cells, count, 99)),
+                        millis(LatencyWindow.percentileMicros(cells, count, 99.9))));
+            }
+
+            double burnRate = requests == 0 ? 0 : ((double) bad / requests) / (1 - objective);
+            return new SloReport.Window(requests, bad, burnRate, statuses);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
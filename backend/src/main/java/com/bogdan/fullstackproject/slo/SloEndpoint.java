@@ -0,0 +1,28 @@
+package com.bogdan.fullstackproject.slo;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/slo: p50/p99/p99.9 and error budget burn per route and status class over the
+ * last 1, 5 and 15 minutes.
+ */
+
+@Component
+@Profile("!reactive")
+@Endpoint(id = "slo")
+public class SloEndpoint {
+
+    private final RouteSloRecorder recorder;
+
+    public SloEndpoint(RouteSloRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public SloReport slo() {
+        return recorder.report();
+    }
+}
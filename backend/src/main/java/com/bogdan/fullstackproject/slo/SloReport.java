@@ -0,0 +1,40 @@
+package com.bogdan.fullstackproject.slo;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+public record SloReport(
+        Duration latencyTarget,
+        double objective,
+        List<Route> routes
+) {
+
+    public record Route(
+            String method,
+            String route,
+            Map<String, Window> windows
+    ) {
+    }
+
+    /**
+     * errorBudgetBurnRate is the share of bad requests (5xx or slower than the latency target)
+     * divided by the share the objective allows: 1.0 spends the budget exactly at the sustainable
+     * rate, above 1.0 exhausts it early.
+     */
+    public record Window(
+            long requests,
+            long badRequests,
+            double errorBudgetBurnRate,
+            Map<String, Latency> statuses
+    ) {
+    }
+
+    public record Latency(
+            long count,
+            double p50Millis,
+            double p99Millis,
+            double p999Millis
+    ) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.bogdan.fullstackproject.slowquery;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Only active with `slow-query.enabled=true`. Wraps the `dataSource` bean (the auto-configured
+ * pool, or the routing DataSource of ReplicaDataSourceConfig) in a SlowQueryDataSource, so JPA,
+ * JdbcTemplate and Flyway statements are all fingerprinted and timed.
+ * ===
+ * Plans are captured by a single daemon thread with a queue of {@value #EXPLAIN_QUEUE_CAPACITY};
+ * when it falls behind, further EXPLAINs are dropped rather than competing with requests for
+ * connections. `slow-query.explain-interval=0` turns plan capture (and bind value capture) off.
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "slow-query.enabled", havingValue = "true")
+public class SlowQueryConfig {
+
+    private static final int EXPLAIN_QUEUE_CAPACITY = 16;
+
+    @Bean
+    public SlowQueryLog slowQueryLog(MeterRegistry meterRegistry,
+                                     @Value("${slow-query.threshold:100ms}") Duration threshold,
+                                     @Value("${slow-query.explain-interval:10m}") Duration explainInterval,
+                                     @Value("${slow-query.max-fingerprints:500}") int maxFingerprints) {
+        ThreadPoolExecutor explainExecutor = new ThreadPoolExecutor(
+                1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(EXPLAIN_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+
+        return new SlowQueryLog(meterRegistry, threshold, explainInterval, maxFingerprints, explainExecutor);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog,
+                                               @Value("${slow-query.top:20}") int top) {
+        return new SlowQueryEndpoint(slowQueryLog, top);
+    }
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource
+                        && !(bean instanceof SlowQueryDataSource)
+                        && beanName.equals("dataSource")) {
+                    return new SlowQueryDataSource(dataSource, slowQueryLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
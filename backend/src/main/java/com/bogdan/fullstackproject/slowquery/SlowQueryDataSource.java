@@ -0,0 +1,179 @@
+package com.bogdan.fullstackproject.slowquery;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Wraps the application DataSource so that every statement, whether issued by JdbcTemplate in
+ * CustomerJDBCDataAccessService or by Hibernate in CustomerJPADataAccessService, is timed and
+ * handed to SlowQueryLog under its SQL text.
+ * ===
+ * Connections and statements are JDK proxies: prepareStatement/prepareCall/createStatement return
+ * a statement proxy that remembers the SQL and, when SlowQueryLog captures plans, the bind values
+ * (needed to re-run the statement under EXPLAIN). The execute* methods are timed; every other
+ * call goes straight to the driver.
+ */
+
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryDataSource(DataSource targetDataSource, SlowQueryLog slowQueryLog) {
+        super(targetDataSource);
+        this.slowQueryLog = slowQueryLog;
+        slowQueryLog.setExplainDataSource(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    // Proxies are only equal to themselves: Spring compares connections when releasing them
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class
+                && (method.getName().equals("equals") || method.getName().equals("hashCode"));
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = SlowQueryDataSource.invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement", "prepareCall" -> wrap((Statement) result, method, (String) args[0]);
+                case "createStatement" -> wrap((Statement) result, method, null);
+                default -> result;
+            };
+        }
+
+        private Statement wrap(Statement statement, Method method, String sql) {
+            Class<?> type = method.getReturnType() == CallableStatement.class
+                    ? CallableStatement.class
+                    : method.getReturnType() == PreparedStatement.class ? PreparedStatement.class : Statement.class;
+            return (Statement) Proxy.newProxyInstance(
+                    getClass().getClassLoader(),
+                    new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+
+        // SQL of the PreparedStatement, or of the last Statement.addBatch(String)
+        private String sql;
+
+        // Bind values by JDBC index, only kept when SlowQueryLog captures plans
+        private Object[] parameters;
+
+        private int parameterCount;
+
+        private boolean batch;
+
+        StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+
+            String name = method.getName();
+
+            if (name.startsWith("execute")) {
+                boolean direct = args != null && args.length > 0 && args[0] instanceof String;
+                String executed = direct ? (String) args[0] : sql;
+                long start = System.nanoTime();
+                try {
+                    return SlowQueryDataSource.invoke(statement, method, args);
+                } finally {
+                    if (executed != null) {
+                        boolean bound = !direct && !batch;
+                        slowQueryLog.record(executed, System.nanoTime() - start,
+                                bound ? parameters : null, bound ? parameterCount : 0);
+                    }
+                    if (name.equals("executeBatch")) {
+                        batch = false;
+                    }
+                }
+            }
+
+            if (name.equals("addBatch")) {
+                batch = true;
+                if (args != null && args.length == 1 && args[0] instanceof String text) {
+                    sql = text;
+                }
+            } else if (name.equals("clearParameters")) {
+                parameters = null;
+                parameterCount = 0;
+            } else if (name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer index && slowQueryLog.capturesParameters()) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            }
+
+            return SlowQueryDataSource.invoke(statement, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (parameters == null) {
+                parameters = new Object[Math.max(index + 1, 8)];
+            } else if (index >= parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index + 1, parameters.length * 2));
+            }
+            parameters[index] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+    }
+}
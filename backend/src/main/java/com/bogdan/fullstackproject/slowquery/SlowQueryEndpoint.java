@@ -0,0 +1,30 @@
+package com.bogdan.fullstackproject.slowquery;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * GET /actuator/slowqueries[?limit=n]: the slowest statement fingerprints by p99, with the last
+ * captured EXPLAIN (ANALYZE, BUFFERS) plan of each.
+ */
+
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    private final int defaultLimit;
+
+    public SlowQueryEndpoint(SlowQueryLog slowQueryLog, int defaultLimit) {
+        this.slowQueryLog = slowQueryLog;
+        this.defaultLimit = defaultLimit;
+    }
+
+    @ReadOperation
+    public List<SlowQueryReport> slowQueries(@Nullable Integer limit) {
+        return slowQueryLog.top(limit == null ? defaultLimit : limit);
+    }
+}
@@ -0,0 +1,247 @@
+package com.bogdan.fullstackproject.slowquery;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the statements executed through SlowQueryDataSource by fingerprint.
+ * ===
+ * Every fingerprint gets a `db.statement` timer with a percentile histogram (tag fingerprint=<id>,
+ * the id being the hex hash shown in the report). A statement slower than `threshold` is logged
+ * and, at most once per `explainInterval` per fingerprint, explained with the same bind values on
+ * `explainExecutor`. Queries are re-run as EXPLAIN (ANALYZE, BUFFERS); writes only get a plain
+ * EXPLAIN, which plans them without executing, so no row is locked or written a second time. The
+ * plan is captured on its own connection in a transaction that is always rolled back, under short
+ * statement and lock timeouts, so a capture never waits behind the application's own locks.
+ * ===
+ * At most `maxFingerprints` fingerprints are tracked; statements beyond that are not recorded.
+ * Raw SQL strings are mapped to their fingerprint once, so a known statement costs one map lookup.
+ */
+
+public class SlowQueryLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final String EXPLAIN_STATEMENT_TIMEOUT = "5s";
+
+    private static final String EXPLAIN_LOCK_TIMEOUT = "500ms";
+
+    private final ConcurrentMap<String, StatementStats> bySql = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, StatementStats> byFingerprint = new ConcurrentHashMap<>();
+
+    private final AtomicInteger fingerprintCount = new AtomicInteger();
+
+    private final MeterRegistry meterRegistry;
+
+    private final long thresholdNanos;
+
+    private final long explainIntervalNanos;
+
+    private final int maxFingerprints;
+
+    private final Executor explainExecutor;
+
+    private volatile DataSource explainDataSource;
+
+    public SlowQueryLog(MeterRegistry meterRegistry, Duration threshold, Duration explainInterval,
+                        int maxFingerprints, Executor explainExecutor) {
+        this.meterRegistry = meterRegistry;
+        this.thresholdNanos = threshold.toNanos();
+        this.explainIntervalNanos = explainInterval.toNanos();
+        this.maxFingerprints = maxFingerprints;
+        this.explainExecutor = explainExecutor;
+    }
+
+    /**
+     * The DataSource EXPLAIN runs against; the unwrapped one, so plans are not recorded themselves.
+     */
+    void setExplainDataSource(DataSource explainDataSource) {
+        this.explainDataSource = explainDataSource;
+    }
+
+    boolean capturesParameters() {
+        return explainIntervalNanos > 0;
+    }
+
+    /**
+     * @param parameters     bind values by JDBC index (element 0 unused), or null when there are
+     *                       none or the statement was a batch
+     * @param parameterCount highest bound index
+     */
+    void record(String sql, long elapsedNanos, Object[] parameters, int parameterCount) {
+        StatementStats stats = bySql.get(sql);
+        if (stats == null) {
+            stats = register(sql);
+            if (stats == null) {
+                return;
+            }
+        }
+
+        stats.timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+
+        stats.slowExecutions.increment();
+        LOGGER.warn("Slow statement ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), stats.fingerprint);
+
+        if (capturesParameters() && StatementFingerprints.isExplainable(sql) && stats.claimExplain(explainIntervalNanos)) {
+            // The statement may be re-executed with other values before the EXPLAIN runs
+            Object[] bound = parameters == null ? null : Arrays.copyOfRange(parameters, 1, parameterCount + 1);
+            final StatementStats explained = stats;
+            explainExecutor.execute(() -> explain(explained, sql, bound));
+        }
+    }
+
+    public List<SlowQueryReport> top(int limit) {
+        return byFingerprint.values().stream()
+                .map(StatementStats::report)
+                .sorted(Comparator.comparingDouble(SlowQueryReport::p99Millis)
+                        .thenComparingDouble(SlowQueryReport::maxMillis)
+                        .reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private StatementStats register(String sql) {
+        String fingerprint = StatementFingerprints.fingerprint(sql);
+        StatementStats stats = byFingerprint.get(fingerprint);
+        if (stats == null) {
+            if (fingerprintCount.get() >= maxFingerprints) {
+                return null;
+            }
+            stats = byFingerprint.computeIfAbsent(fingerprint, f -> {
+                fingerprintCount.incrementAndGet();
+                return new StatementStats(f);
+            });
+        }
+        // Statements with inlined literals would grow this map without bound
+        if (bySql.size() < maxFingerprints * 4) {
+            bySql.putIfAbsent(sql, stats);
+        }
+        return stats;
+    }
+
+    private void explain(StatementStats stats, String sql, Object[] parameters) {
+        DataSource dataSource = explainDataSource;
+        if (dataSource == null) {
+            return;
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement timeout = connection.prepareStatement(
+                        "SET LOCAL statement_timeout = '%s'".formatted(EXPLAIN_STATEMENT_TIMEOUT))) {
+                    timeout.execute();
+                }
+                try (PreparedStatement timeout = connection.prepareStatement(
+                        "SET LOCAL lock_timeout = '%s'".formatted(EXPLAIN_LOCK_TIMEOUT))) {
+                    timeout.execute();
+                }
+                String explainSql = StatementFingerprints.isReadOnly(sql)
+                        ? "EXPLAIN (ANALYZE, BUFFERS) " + sql
+                        : "EXPLAIN " + sql;
+                try (PreparedStatement explain = connection.prepareStatement(explainSql)) {
+                    if (parameters != null) {
+                        for (int i = 0; i < parameters.length; i++) {
+                            explain.setObject(i + 1, parameters[i]);
+                        }
+                    }
+                    StringBuilder plan = new StringBuilder();
+                    try (ResultSet rs = explain.executeQuery()) {
+                        while (rs.next()) {
+                            plan.append(rs.getString(1)).append('\n');
+                        }
+                    }
+                    stats.plan(plan.toString());
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.debug("Could not capture the plan of {}", stats.fingerprint, e);
+        }
+    }
+
+    private final class StatementStats {
+
+        private final String fingerprint;
+
+        private final String id;
+
+        private final Timer timer;
+
+        private final LongAdder slowExecutions = new LongAdder();
+
+        // System.nanoTime() of the last EXPLAIN, or Long.MIN_VALUE
+        private final AtomicLong lastExplain = new AtomicLong(Long.MIN_VALUE);
+
+        private volatile String plan;
+
+        private volatile Instant planCapturedAt;
+
+        StatementStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+            this.id = Integer.toHexString(fingerprint.hashCode());
+            this.timer = Timer.builder("db.statement")
+                    .description(fingerprint)
+                    .tag("fingerprint", id)
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.99)
+                    .register(meterRegistry);
+        }
+
+        boolean claimExplain(long intervalNanos) {
+            long now = System.nanoTime();
+            long last = lastExplain.get();
+            return (last == Long.MIN_VALUE || now - last >= intervalNanos) && lastExplain.compareAndSet(last, now);
+        }
+
+        void plan(String plan) {
+            this.plan = plan;
+            this.planCapturedAt = Instant.now();
+        }
+
+        SlowQueryReport report() {
+            double p99 = 0;
+            for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                if (percentile.percentile() == 0.99) {
+                    p99 = percentile.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return new SlowQueryReport(
+                    id,
+                    fingerprint,
+                    timer.count(),
+                    slowExecutions.sum(),
+                    timer.mean(TimeUnit.MILLISECONDS),
+                    p99,
+                    timer.max(TimeUnit.MILLISECONDS),
+                    plan,
+                    planCapturedAt);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.bogdan.fullstackproject.slowquery;
+
+import java.time.Instant;
+
+public record SlowQueryReport(
+        String id,
+        String fingerprint,
+        long executions,
+        long slowExecutions,
+        double meanMillis,
+        double p99Millis,
+        double maxMillis,
+        String plan,
+        Instant planCapturedAt
+) {
+}
@@ -0,0 +1,68 @@
+package com.bogdan.fullstackproject.slowquery;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a SQL statement to its shape so that executions differing only in literal values are
+ * counted together: literals become ?, IN lists collapse to a single ? and whitespace is squeezed.
+ * Statements from JdbcTemplate and Hibernate already use bind parameters, so for them this mostly
+ * normalizes formatting (hibernate.format_sql line breaks and indentation).
+ */
+
+final class StatementFingerprints {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern WRITE = Pattern.compile("(?i)\\b(?:insert|update|delete|merge)\\b");
+
+    private static final Pattern SIDE_EFFECT = Pattern.compile(
+            "(?i)\\b(?:nextval|setval)\\s*\\(|\\bfor\\s+(?:no\\s+key\\s+)?update\\b|\\bfor\\s+(?:key\\s+)?share\\b");
+
+    private StatementFingerprints() {
+    }
+
+    static String fingerprint(String sql) {
+        String fingerprint = STRING_LITERAL.matcher(sql).replaceAll("?");
+        fingerprint = NUMBER_LITERAL.matcher(fingerprint).replaceAll("?");
+        fingerprint = WHITESPACE.matcher(fingerprint).replaceAll(" ").trim();
+        return IN_LIST.matcher(fingerprint).replaceAll("in (?)");
+    }
+
+    // EXPLAIN only accepts these
+    static boolean isExplainable(String sql) {
+        return switch (leadingKeyword(sql)) {
+            case "select", "insert", "update", "delete", "with" -> true;
+            default -> false;
+        };
+    }
+
+    // Safe to EXPLAIN ANALYZE, which executes the statement: a query, or a WITH query without a
+    // data-modifying CTE. Writes would take row locks and fire the customer triggers; so do
+    // FOR UPDATE/FOR SHARE, and nextval/setval advance a sequence even when rolled back.
+    static boolean isReadOnly(String sql) {
+        String code = STRING_LITERAL.matcher(sql).replaceAll("?");
+        if (SIDE_EFFECT.matcher(code).find()) {
+            return false;
+        }
+        return switch (leadingKeyword(sql)) {
+            case "select" -> true;
+            case "with" -> !WRITE.matcher(code).find();
+            default -> false;
+        };
+    }
+
+    private static String leadingKeyword(String sql) {
+        String head = sql.stripLeading();
+        int end = 0;
+        while (end < head.length() && Character.isLetter(head.charAt(end))) {
+            end++;
+        }
+        return head.substring(0, end).toLowerCase();
+    }
+}
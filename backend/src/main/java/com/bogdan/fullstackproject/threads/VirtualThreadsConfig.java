@@ -0,0 +1,44 @@
+package com.bogdan.fullstackproject.threads;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * With `threads.virtual.enabled=true` Tomcat hands every request to a new virtual thread instead
+ * of its bounded platform pool, so the controller, the service and the blocking JDBC calls of the
+ * DAO all run on that virtual thread. A request waiting on the database or on a password hash
+ * parks and releases its carrier, and concurrency is limited by the connection pool rather than
+ * by server.tomcat.threads.max.
+ * ===
+ * The application task executor (asynchronous password rehash) is switched to virtual threads too.
+ * BCrypt itself stays on the platform threads of BoundedPasswordEncoder: it is CPU-bound and
+ * would otherwise occupy the carrier threads.
+ * ===
+ * A virtual thread blocking inside a `synchronized` block pins its carrier, so our own code uses
+ * java.util.concurrent locks and concurrent collections only. Run with
+ * `-Djdk.tracePinnedThreads=short` to report pinning coming from libraries.
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-virtual-", 0).factory()));
+    }
+
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-virtual-", 0).factory()));
+    }
+}
@@ -0,0 +1,4 @@
+-- Let each node reserve blocks of 50 ids with a single nextval call (Hibernate "pooled" optimizer).
+-- nextval still returns unique values to every caller, so plain INSERTs using the column
+-- default keep working next to JPA inserts without ever colliding.
+ALTER SEQUENCE customer_id_seq INCREMENT BY 50;
@@ -0,0 +1,3 @@
+-- Emails are unique regardless of case. Lookups have to compare lower(email) to hit this index.
+-- INCLUDE (id) lets existence probes and id lookups by email run as index-only scans.
+CREATE UNIQUE INDEX customer_email_unique ON customer (lower(email)) INCLUDE (id);
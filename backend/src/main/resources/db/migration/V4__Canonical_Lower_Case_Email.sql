@@ -0,0 +1,8 @@
+-- Store emails in canonical lower case so they can serve as an exact natural id
+-- (Hibernate natural-id cache) while staying unique regardless of case.
+UPDATE customer SET email = lower(email) WHERE email <> lower(email);
+
+ALTER TABLE customer ADD CONSTRAINT customer_email_lower_case CHECK (email = lower(email));
+
+DROP INDEX customer_email_unique;
+CREATE UNIQUE INDEX customer_email_unique ON customer (email) INCLUDE (id);
@@ -0,0 +1,6 @@
+-- Fuzzy search on name and email (GET /api/v1/customers/search). The GIN trigram indexes
+-- serve the word-similarity operator (<%) as well as LIKE/ILIKE '%...%' patterns.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX customer_name_trgm ON customer USING gin (name gin_trgm_ops);
+CREATE INDEX customer_email_trgm ON customer USING gin (email gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- Access paths of the filtered and sorted customer pages (GET /api/v1/customers?limit=...).
+-- id completes every sort key, so a keyset page is a range scan from (value, id) that stops
+-- after LIMIT rows; with a gender filter the gender-prefixed indexes serve filter and order.
+CREATE INDEX customer_name_id ON customer (name, id);
+CREATE INDEX customer_age_id ON customer (age, id);
+CREATE INDEX customer_gender_name_id ON customer (gender, name, id);
+CREATE INDEX customer_gender_age_id ON customer (gender, age, id);
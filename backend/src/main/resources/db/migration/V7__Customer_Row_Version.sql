@@ -0,0 +1,38 @@
+-- Row version behind the strong ETag of GET /api/v1/customers/{id}. The trigger bumps it on
+-- every UPDATE, whichever data access path (JDBC, JPA, R2DBC) issued the statement.
+ALTER TABLE customer
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE FUNCTION customer_bump_row_version() RETURNS trigger AS $$
+BEGIN
+    NEW.version := OLD.version + 1;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_row_version
+    BEFORE UPDATE ON customer
+    FOR EACH ROW EXECUTE FUNCTION customer_bump_row_version();
+
+-- Table-wide change counter behind the weak ETag of GET /api/v1/customers. Every statement that
+-- writes the table bumps one of 16 slots picked by backend pid, so concurrent writers rarely wait
+-- on the same row lock. The list version is the sum of the slots; it is transactional, so it
+-- never runs ahead of the rows a reader can see.
+CREATE TABLE customer_change_counter (
+    slot    SMALLINT PRIMARY KEY,
+    changes BIGINT   NOT NULL
+);
+
+INSERT INTO customer_change_counter (slot, changes)
+SELECT slot, 0 FROM generate_series(0, 15) AS slot;
+
+CREATE FUNCTION customer_bump_change_counter() RETURNS trigger AS $$
+BEGIN
+    UPDATE customer_change_counter SET changes = changes + 1 WHERE slot = pg_backend_pid() % 16;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_change_counter
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON customer
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_bump_change_counter();
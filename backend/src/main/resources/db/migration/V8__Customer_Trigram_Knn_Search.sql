@@ -0,0 +1,9 @@
+-- GIN trigram indexes only filter on word similarity: every match still had to be ranked and
+-- sorted before LIMIT, and a short query like 'gma' matches nearly every email. GiST trigram
+-- indexes also return rows nearest first by word-similarity distance (name <->> query), so a
+-- search page reads only as many index entries as it shows.
+DROP INDEX customer_name_trgm;
+DROP INDEX customer_email_trgm;
+
+CREATE INDEX customer_name_trgm ON customer USING gist (name gist_trgm_ops);
+CREATE INDEX customer_email_trgm ON customer USING gist (email gist_trgm_ops);
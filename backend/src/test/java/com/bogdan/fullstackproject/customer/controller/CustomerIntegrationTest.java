@@ -10,6 +10,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
@@ -230,6 +232,194 @@ public class CustomerIntegrationTest {
         assertThat(updatedCustomer).isEqualTo(expectedCustomer);
     }
 
+    @Test
+    void conditionalGetCustomer() {
+        //Register customer
+        CustomerRegistrationRequest request = createRequest();
+
+        HttpHeaders registration = webTestClient.post()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders();
+
+        String jwtToken = registration.getFirst(AUTHORIZATION);
+        String location = registration.getFirst(HttpHeaders.LOCATION);
+
+        //Get customer by id: strong ETag
+        String etag = webTestClient.get()
+                .uri(location)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(CustomerDTO.class)
+                .getResponseHeaders()
+                .getETag();
+
+        assertThat(etag).isNotNull().doesNotStartWith("W/");
+
+        //Unchanged customer: 304 without a body
+        webTestClient.get()
+                .uri(location)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectBody()
+                .isEmpty();
+
+        //Update customer
+        webTestClient.put()
+                .uri(location)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new CustomerUpdateRequest("Nick", null, null)), CustomerUpdateRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        //Changed customer: full response with a new ETag
+        webTestClient.get()
+                .uri(location)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .value(HttpHeaders.ETAG, newEtag -> assertThat(newEtag).isNotEqualTo(etag))
+                .expectBody(CustomerDTO.class)
+                .value(customer -> assertThat(customer.name()).isEqualTo("Nick"));
+    }
+
+    @Test
+    void conditionalGetCustomers() {
+        //Register customer
+        String jwtToken = webTestClient.post()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(createRequest()), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .getFirst(AUTHORIZATION);
+
+        //Get all customers: weak ETag
+        String etag = webTestClient.get()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(CustomerDTO.class)
+                .getResponseHeaders()
+                .getETag();
+
+        assertThat(etag).startsWith("W/");
+
+        //No write since: 304
+        webTestClient.get()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus()
+                .isNotModified();
+
+        //Another registration moves the change counter
+        webTestClient.post()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(createRequest()), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        webTestClient.get()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus()
+                .isOk();
+    }
+
+    @Test
+    void versionCheckedUpdateCustomer() {
+        //Register customer
+        HttpHeaders registration = webTestClient.post()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(createRequest()), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders();
+
+        String jwtToken = registration.getFirst(AUTHORIZATION);
+        String location = registration.getFirst(HttpHeaders.LOCATION);
+
+        String etag = webTestClient.get()
+                .uri(location)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(CustomerDTO.class)
+                .getResponseHeaders()
+                .getETag();
+
+        //Update with the current ETag: new ETag back
+        String newEtag = webTestClient.put()
+                .uri(location)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new CustomerUpdateRequest("Nick", null, null)), CustomerUpdateRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .getETag();
+
+        assertThat(newEtag).isNotNull().isNotEqualTo(etag);
+
+        //Update with the old ETag: 412
+        webTestClient.put()
+                .uri(location)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new CustomerUpdateRequest("Nicolas", null, null)), CustomerUpdateRequest.class)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
     private CustomerRegistrationRequest createRequest() {
         Faker faker = new Faker();
         Name fakerName = faker.name();
@@ -0,0 +1,82 @@
+package com.bogdan.fullstackproject.customer.dao;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerDaoMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CustomerDao customerDao;
+
+    private CustomerDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        customerDao = mock(CustomerDao.class);
+        ProxyFactory proxyFactory = new ProxyFactory(customerDao);
+        proxyFactory.addInterface(CustomerDao.class);
+        proxyFactory.addAdvice(new CustomerDaoMetricsInterceptor(meterRegistry, "jdbc"));
+        underTest = (CustomerDao) proxyFactory.getProxy();
+    }
+
+    @Test
+    void recordsLatencyAndRowsPerMethod() {
+        //Given
+        Customer customer = new Customer(1, "Alex", "alex@gmail.com", "password", 20, Gender.MALE);
+        when(customerDao.selectAllCustomers()).thenReturn(List.of(customer, customer, customer));
+        when(customerDao.selectUserByEmail("alex@gmail.com")).thenReturn(Optional.of(customer));
+
+        //When
+        underTest.selectAllCustomers();
+        underTest.selectAllCustomers();
+        underTest.selectUserByEmail("alex@gmail.com");
+
+        //Then
+        assertThat(meterRegistry.get("customer.dao")
+                .tag("method", "selectAllCustomers")
+                .tag("implementation", "jdbc")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("customer.dao.rows")
+                .tag("method", "selectAllCustomers")
+                .summary().totalAmount()).isEqualTo(6);
+        assertThat(meterRegistry.get("customer.dao.rows")
+                .tag("method", "selectUserByEmail")
+                .summary().totalAmount()).isEqualTo(1);
+        assertThat(meterRegistry.get("customer.dao")
+                .tag("method", "existsCustomerWithEmail")
+                .timer().count()).isZero();
+    }
+
+    @Test
+    void countsErrorsByExceptionType() {
+        //Given
+        when(customerDao.existsCustomerWithId(1))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.existsCustomerWithId(1))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(meterRegistry.get("customer.dao.errors")
+                .tag("method", "existsCustomerWithId")
+                .tag("exception", "DataAccessResourceFailureException")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("customer.dao")
+                .tag("method", "existsCustomerWithId")
+                .timer().count()).isEqualTo(1);
+    }
+}
@@ -2,12 +2,18 @@ package com.bogdan.fullstackproject.customer.dao;
 
 import com.bogdan.fullstackproject.AbstractTestcontainers;
 import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerSortField;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
 import com.bogdan.fullstackproject.customer.model.Gender;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -39,6 +45,105 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         assertThat(actual).isNotEmpty();
     }
 
+    @Test
+    void selectCustomersAfter() {
+        //Given
+        Customer first = getCustomer();
+        Customer second = getCustomer();
+        underTest.insertCustomer(first);
+        underTest.insertCustomer(second);
+
+        int firstId = getCustomerId(first.getEmail());
+        int secondId = getCustomerId(second.getEmail());
+
+        //When
+        List<Customer> actual = underTest.selectCustomersAfter(firstId, 1);
+
+        //Then
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getId()).isEqualTo(secondId);
+    }
+
+    @Test
+    void selectCustomersAfterReturnsEmptyPastLastId() {
+        //Given
+        Customer customer = getCustomer();
+        underTest.insertCustomer(customer);
+
+        int customerId = getCustomerId(customer.getEmail());
+
+        //When
+        List<Customer> actual = underTest.selectCustomersAfter(customerId, 10);
+
+        //Then
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void selectCustomersFiltersSortsAndContinuesAfterKey() {
+        //Given
+        String marker = UUID.randomUUID().toString();
+        Customer youngest = new Customer("A " + marker, "a-" + marker + "@example.com", "password", 201, Gender.FEMALE);
+        Customer male = new Customer("B " + marker, "b-" + marker + "@example.com", "password", 202, Gender.MALE);
+        Customer oldest = new Customer("C " + marker, "c-" + marker + "@example.com", "password", 203, Gender.FEMALE);
+        underTest.insertCustomersIfEmailAbsent(List.of(youngest, male, oldest));
+
+        int oldestId = getCustomerId(oldest.getEmail());
+
+        //When
+        List<Customer> firstPage = underTest.selectCustomers(new CustomerQuery(
+                Gender.FEMALE, 201, 203, CustomerSortField.AGE, true, null, 1));
+        List<Customer> secondPage = underTest.selectCustomers(new CustomerQuery(
+                Gender.FEMALE, 201, 203, CustomerSortField.AGE, true,
+                new CustomerQuery.After(oldestId, null, 203), 10));
+
+        //Then
+        assertThat(firstPage).extracting(Customer::getEmail).containsExactly(oldest.getEmail());
+        assertThat(secondPage).extracting(Customer::getEmail).containsExactly(youngest.getEmail());
+    }
+
+    @Test
+    void searchCustomersMatchesPartialAndMisspelledNames() {
+        //Given
+        String marker = UUID.randomUUID().toString().substring(0, 8);
+        Customer customer = new Customer(
+                "Maximilian Featherstonehaugh " + marker,
+                "max-" + marker + "@example.com",
+                "password",
+                25,
+                Gender.MALE);
+        underTest.insertCustomer(customer);
+
+        //When
+        List<Customer> byPartialName = underTest.searchCustomers("Featherstone", 0, 10);
+        List<Customer> byMisspelledName = underTest.searchCustomers("Fetherstonehaugh", 0, 10);
+        List<Customer> byEmail = underTest.searchCustomers("max-" + marker, 0, 10);
+
+        //Then
+        assertThat(byPartialName).extracting(Customer::getEmail).contains(customer.getEmail());
+        assertThat(byMisspelledName).extracting(Customer::getEmail).contains(customer.getEmail());
+        assertThat(byEmail).extracting(Customer::getEmail).first().isEqualTo(customer.getEmail());
+    }
+
+    @Test
+    void streamAllCustomers() {
+        //Given
+        Customer customer = getCustomer();
+        underTest.insertCustomer(customer);
+
+        //When
+        List<Customer> actual = new ArrayList<>();
+        underTest.streamAllCustomers(1, actual::add);
+
+        //Then
+        assertThat(actual)
+                .extracting(Customer::getEmail)
+                .contains(customer.getEmail());
+        assertThat(actual)
+                .extracting(Customer::getId)
+                .isSorted();
+    }
+
     @Test
     void selectCustomerById() {
         //Given
@@ -61,6 +166,52 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         });
     }
 
+    @Test
+    void updateBumpsRowVersionAndChangeCounter() {
+        //Given
+        Customer customer = getCustomer();
+        underTest.insertCustomer(customer);
+
+        int customerId = getCustomerId(customer.getEmail());
+        long rowVersion = underTest.selectCustomerById(customerId).orElseThrow().getVersion();
+        long tableVersion = underTest.selectCustomersVersion();
+
+        //When
+        Customer update = new Customer();
+        update.setId(customerId);
+        update.setName("Versioned");
+
+        underTest.updateCustomer(update);
+
+        //Then
+        assertThat(underTest.selectCustomerById(customerId).orElseThrow().getVersion())
+                .isEqualTo(rowVersion + 1);
+        assertThat(underTest.selectCustomersVersion()).isGreaterThan(tableVersion);
+    }
+
+    @Test
+    void updateCustomerIfVersionChecksVersion() {
+        //Given
+        Customer customer = getCustomer();
+        underTest.insertCustomer(customer);
+
+        int customerId = getCustomerId(customer.getEmail());
+        long version = underTest.selectCustomerById(customerId).orElseThrow().getVersion();
+        CustomerUpdateRequest update = new CustomerUpdateRequest("Versioned", null, null);
+
+        //When
+        Optional<Long> updated = underTest.updateCustomerIfVersion(customerId, version, update);
+        Optional<Long> stale = underTest.updateCustomerIfVersion(customerId, version, update);
+
+        //Then
+        assertThat(updated).contains(version + 1);
+        assertThat(stale).isEmpty();
+        assertThat(underTest.selectCustomerById(customerId)).hasValueSatisfying(c -> {
+            assertThat(c.getName()).isEqualTo("Versioned");
+            assertThat(c.getVersion()).isEqualTo(version + 1);
+        });
+    }
+
     @Test
     void returnEmptyWhenSelectCustomerById() {
         //Given
@@ -88,6 +239,82 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         assertThat(actual).isTrue();
     }
 
+    @Test
+    void insertCustomerIfEmailAbsent() {
+        //Given
+        Customer customer = getCustomer();
+
+        //When
+        Optional<Integer> actual = underTest.insertCustomerIfEmailAbsent(customer);
+
+        //Then
+        assertThat(actual).isPresent();
+        assertThat(underTest.selectCustomerById(actual.get())).isPresent().hasValueSatisfying(c ->
+                assertThat(c.getEmail()).isEqualTo(customer.getEmail()));
+    }
+
+    @Test
+    void insertCustomerIfEmailAbsentReturnEmptyWhenEmailTaken() {
+        //Given
+        Customer customer = getCustomer();
+        underTest.insertCustomer(customer);
+
+        Customer sameEmail = getCustomer();
+        sameEmail.setEmail(customer.getEmail().toUpperCase());
+
+        //When
+        Optional<Integer> actual = underTest.insertCustomerIfEmailAbsent(sameEmail);
+
+        //Then
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void insertCustomersIfEmailAbsent() {
+        //Given
+        Customer existing = getCustomer();
+        underTest.insertCustomer(existing);
+        Customer fresh = getCustomer();
+        Customer taken = new Customer("Taken", existing.getEmail(), "password", 30, Gender.MALE);
+
+        //When
+        Map<String, Integer> actual = underTest.insertCustomersIfEmailAbsent(List.of(fresh, taken));
+
+        //Then
+        assertThat(actual).containsOnlyKeys(fresh.getEmail());
+        assertThat(underTest.selectCustomerById(actual.get(fresh.getEmail()))).isPresent();
+    }
+
+    @Test
+    void selectExistingEmails() {
+        //Given
+        Customer customer = getCustomer();
+        underTest.insertCustomer(customer);
+
+        String unknownEmail = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+
+        //When
+        Set<String> actual = underTest.selectExistingEmails(List.of(customer.getEmail(), unknownEmail));
+
+        //Then
+        assertThat(actual).containsExactly(customer.getEmail().toLowerCase());
+    }
+
+    @Test
+    void existsCustomerWithEmailIgnoresCase() {
+        //Given
+        Customer customer = getCustomer();
+        String email = customer.getEmail();
+
+        underTest.insertCustomer(customer);
+
+        //When
+        boolean actual = underTest.existsCustomerWithEmail(email.toUpperCase());
+
+        //Then
+        assertThat(actual).isTrue();
+    }
+
     @Test
     void existsCustomerWithEmailReturnFalseWhenDoesNotExists() {
         //Given
@@ -295,6 +522,57 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         });
     }
 
+    @Test
+    void patchCustomer() {
+        //Given
+        Customer customer = getCustomer();
+        underTest.insertCustomer(customer);
+
+        int customerId = getCustomerId(customer.getEmail());
+
+        //When
+        boolean actual = underTest.patchCustomer(customerId, new CustomerUpdateRequest("Test", null, 42));
+
+        //Then
+        assertThat(actual).isTrue();
+        assertThat(underTest.selectCustomerById(customerId)).isPresent().hasValueSatisfying(c -> {
+            assertThat(c.getName()).isEqualTo("Test"); //change
+            assertThat(c.getEmail()).isEqualTo(customer.getEmail());
+            assertThat(c.getAge()).isEqualTo(42); //change
+        });
+    }
+
+    @Test
+    void patchCustomerReturnFalseWhenIdDoesNotExists() {
+        //Given
+        int customerId = -1;
+
+        //When
+        boolean actual = underTest.patchCustomer(customerId, new CustomerUpdateRequest("Test", null, null));
+
+        //Then
+        assertThat(actual).isFalse();
+    }
+
+    @Test
+    void updateCustomerPassword() {
+        //Given
+        Customer customer = getCustomer();
+        underTest.insertCustomer(customer);
+
+        int customerId = getCustomerId(customer.getEmail());
+
+        //When
+        boolean actual = underTest.updateCustomerPassword(customerId, "rehashed");
+
+        //Then
+        assertThat(actual).isTrue();
+        assertThat(underTest.selectCustomerById(customerId)).isPresent().hasValueSatisfying(c -> {
+            assertThat(c.getPassword()).isEqualTo("rehashed"); //change
+            assertThat(c.getName()).isEqualTo(customer.getName());
+        });
+    }
+
     private Customer getCustomer() {
         return new Customer(
                 FAKER.name().fullName(),
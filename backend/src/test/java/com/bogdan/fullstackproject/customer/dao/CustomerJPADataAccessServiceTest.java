@@ -1,15 +1,29 @@
 package com.bogdan.fullstackproject.customer.dao;
 
 import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerSortField;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
 import com.bogdan.fullstackproject.customer.model.Gender;
 import com.bogdan.fullstackproject.customer.repository.CustomerRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * A declarative alternative to calling the Mockito.mock() method is to annotate
@@ -53,6 +67,51 @@ class CustomerJPADataAccessServiceTest {
         verify(customerRepository).findAll();
     }
 
+    @Test
+    void selectCustomersAfter() {
+        //Given
+        int afterId = 5;
+        int limit = 20;
+
+        //When
+        underTest.selectCustomersAfter(afterId, limit);
+
+        //Then
+        verify(customerRepository).findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.ofSize(limit));
+    }
+
+    @Test
+    void selectCustomers() {
+        //Given
+        CustomerQuery query = new CustomerQuery(
+                Gender.FEMALE, 18, 30, CustomerSortField.NAME, false, null, 20);
+
+        //When
+        underTest.selectCustomers(query);
+
+        //Then
+        verify(customerRepository).findAllLimited(
+                any(), eq(Sort.by("name").and(Sort.by("id"))), eq(20));
+    }
+
+    @Test
+    void selectCustomersVersion() {
+        //When
+        underTest.selectCustomersVersion();
+
+        //Then
+        verify(customerRepository).selectCustomersVersion();
+    }
+
+    @Test
+    void searchCustomers() {
+        //When
+        underTest.searchCustomers("jill", 20, 10);
+
+        //Then
+        verify(customerRepository).searchByNameOrEmail("jill", 20, 10, 30);
+    }
+
     @Test
     void selectCustomerById() {
         //Given
@@ -78,6 +137,46 @@ class CustomerJPADataAccessServiceTest {
         verify(customerRepository).save(customer);
     }
 
+    @Test
+    void insertCustomerIfEmailAbsent() {
+        //Given
+        Customer customer = new Customer("Jill", "jill@gmail.com",
+                "password", 25, Gender.UNSELECTED);
+
+        //When
+        underTest.insertCustomerIfEmailAbsent(customer);
+
+        //Then
+        verify(customerRepository).insertIfEmailAbsent("Jill", "jill@gmail.com",
+                "password", 25, Gender.UNSELECTED.name());
+    }
+
+    @Test
+    void insertCustomersIfEmailAbsent() {
+        //Given
+        List<Customer> customers = List.of(
+                new Customer("Jill", "jill@gmail.com", "password", 25, Gender.FEMALE),
+                new Customer("Alex", "alex@gmail.com", "password", 30, Gender.MALE));
+
+        //When
+        underTest.insertCustomersIfEmailAbsent(customers);
+
+        //Then
+        verify(customerRepository).insertAllIfEmailAbsent(customers);
+    }
+
+    @Test
+    void selectExistingEmails() {
+        //Given
+        List<String> emails = List.of("jill@gmail.com", "alex@gmail.com");
+
+        //When
+        underTest.selectExistingEmails(emails);
+
+        //Then
+        verify(customerRepository).findExistingEmails(emails);
+    }
+
     @Test
     void existsCustomerWithEmail() {
         //Given
@@ -112,7 +211,77 @@ class CustomerJPADataAccessServiceTest {
         underTest.updateCustomer(customer);
 
         //Then
-        verify(customerRepository).save(customer);
+        ArgumentCaptor<CustomerColumnUpdates> updatesArgumentCaptor =
+                ArgumentCaptor.forClass(CustomerColumnUpdates.class);
+
+        verify(customerRepository).updateColumns(eq(customer.getId()), updatesArgumentCaptor.capture());
+
+        assertThat(updatesArgumentCaptor.getValue().columns())
+                .containsOnlyKeys(CustomerColumnUpdates.NAME, CustomerColumnUpdates.EMAIL, CustomerColumnUpdates.AGE);
+    }
+
+    @Test
+    void patchCustomer() {
+        //Given
+        int customerId = 1;
+        CustomerUpdateRequest patch = new CustomerUpdateRequest(null, null, 30);
+
+        when(customerRepository.updateColumns(eq(customerId), any())).thenReturn(1);
+
+        //When
+        boolean actual = underTest.patchCustomer(customerId, patch);
+
+        //Then
+        ArgumentCaptor<CustomerColumnUpdates> updatesArgumentCaptor =
+                ArgumentCaptor.forClass(CustomerColumnUpdates.class);
+
+        verify(customerRepository).updateColumns(eq(customerId), updatesArgumentCaptor.capture());
+
+        assertThat(actual).isTrue();
+        assertThat(updatesArgumentCaptor.getValue().columns()).containsOnlyKeys(CustomerColumnUpdates.AGE);
+    }
+
+    @Test
+    void updateCustomerIfVersion() {
+        //Given
+        int customerId = 1;
+        CustomerUpdateRequest update = new CustomerUpdateRequest("Alex", null, 30);
+
+        when(customerRepository.updateColumnsIfVersion(eq(customerId), eq(3L), any())).thenReturn(Optional.of(4L));
+
+        //When
+        Optional<Long> actual = underTest.updateCustomerIfVersion(customerId, 3, update);
+
+        //Then
+        ArgumentCaptor<CustomerColumnUpdates> updatesArgumentCaptor =
+                ArgumentCaptor.forClass(CustomerColumnUpdates.class);
+
+        verify(customerRepository).updateColumnsIfVersion(eq(customerId), eq(3L), updatesArgumentCaptor.capture());
+
+        assertThat(actual).contains(4L);
+        assertThat(updatesArgumentCaptor.getValue().columns())
+                .containsOnlyKeys(CustomerColumnUpdates.NAME, CustomerColumnUpdates.AGE);
+    }
+
+    @Test
+    void updateCustomerPassword() {
+        //Given
+        int customerId = 1;
+
+        when(customerRepository.updateColumns(eq(customerId), any())).thenReturn(1);
+
+        //When
+        boolean actual = underTest.updateCustomerPassword(customerId, "rehashed");
+
+        //Then
+        ArgumentCaptor<CustomerColumnUpdates> updatesArgumentCaptor =
+                ArgumentCaptor.forClass(CustomerColumnUpdates.class);
+
+        verify(customerRepository).updateColumns(eq(customerId), updatesArgumentCaptor.capture());
+
+        assertThat(actual).isTrue();
+        assertThat(updatesArgumentCaptor.getValue().columns())
+                .containsExactly(Map.entry(CustomerColumnUpdates.PASSWORD, "rehashed"));
     }
 
     @Test
@@ -0,0 +1,139 @@
+package com.bogdan.fullstackproject.customer.dao;
+
+import com.bogdan.fullstackproject.AbstractTestcontainers;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerR2DBCDataAccessServiceTest extends AbstractTestcontainers {
+
+    private CustomerR2DBCDataAccessService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerR2DBCDataAccessService(DatabaseClient.create(ConnectionFactories.get(
+                ConnectionFactoryOptions.builder()
+                        .option(ConnectionFactoryOptions.DRIVER, "postgresql")
+                        .option(ConnectionFactoryOptions.HOST, postgreSQLContainer.getHost())
+                        .option(ConnectionFactoryOptions.PORT,
+                                postgreSQLContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT))
+                        .option(ConnectionFactoryOptions.DATABASE, postgreSQLContainer.getDatabaseName())
+                        .option(ConnectionFactoryOptions.USER, postgreSQLContainer.getUsername())
+                        .option(ConnectionFactoryOptions.PASSWORD, postgreSQLContainer.getPassword())
+                        .build())));
+    }
+
+    @Test
+    void insertCustomerIfEmailAbsentAndSelectById() {
+        //Given
+        Customer customer = getCustomer();
+
+        //When
+        Integer customerId = underTest.insertCustomerIfEmailAbsent(customer).block();
+
+        //Then
+        assertThat(customerId).isNotNull();
+        StepVerifier.create(underTest.selectCustomerById(customerId))
+                .assertNext(c -> {
+                    assertThat(c.getName()).isEqualTo(customer.getName());
+                    assertThat(c.getEmail()).isEqualTo(customer.getEmail());
+                    assertThat(c.getGender()).isEqualTo(Gender.UNSELECTED);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void insertCustomerIfEmailAbsentIsEmptyForDuplicateEmail() {
+        //Given
+        Customer customer = getCustomer();
+        underTest.insertCustomerIfEmailAbsent(customer).block();
+
+        //When
+        Customer duplicate = new Customer("Other", customer.getEmail().toUpperCase(), "password", 30, Gender.MALE);
+
+        //Then
+        StepVerifier.create(underTest.insertCustomerIfEmailAbsent(duplicate))
+                .verifyComplete();
+    }
+
+    @Test
+    void selectCustomersAfter() {
+        //Given
+        Integer firstId = underTest.insertCustomerIfEmailAbsent(getCustomer()).block();
+        Integer secondId = underTest.insertCustomerIfEmailAbsent(getCustomer()).block();
+
+        //Then
+        StepVerifier.create(underTest.selectCustomersAfter(firstId, 1))
+                .assertNext(c -> assertThat(c.getId()).isEqualTo(secondId))
+                .verifyComplete();
+    }
+
+    @Test
+    void selectUserByEmailIgnoresCase() {
+        //Given
+        Customer customer = getCustomer();
+        Integer customerId = underTest.insertCustomerIfEmailAbsent(customer).block();
+
+        //Then
+        StepVerifier.create(underTest.selectUserByEmail(customer.getEmail().toUpperCase()))
+                .assertNext(c -> assertThat(c.getId()).isEqualTo(customerId))
+                .verifyComplete();
+        StepVerifier.create(underTest.existsCustomerWithEmail(customer.getEmail().toUpperCase()))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void patchCustomer() {
+        //Given
+        Customer customer = getCustomer();
+        Integer customerId = underTest.insertCustomerIfEmailAbsent(customer).block();
+
+        //When
+        Boolean actual = underTest.patchCustomer(customerId, new CustomerUpdateRequest("Test", null, 42)).block();
+
+        //Then
+        assertThat(actual).isTrue();
+        StepVerifier.create(underTest.selectCustomerById(customerId))
+                .assertNext(c -> {
+                    assertThat(c.getName()).isEqualTo("Test"); //change
+                    assertThat(c.getEmail()).isEqualTo(customer.getEmail());
+                    assertThat(c.getAge()).isEqualTo(42); //change
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteCustomerById() {
+        //Given
+        Integer customerId = underTest.insertCustomerIfEmailAbsent(getCustomer()).block();
+
+        //Then
+        StepVerifier.create(underTest.deleteCustomerById(customerId))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(underTest.deleteCustomerById(customerId))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    private Customer getCustomer() {
+        return new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                "password",
+                25,
+                Gender.UNSELECTED);
+    }
+}
@@ -1,14 +1,21 @@
 package com.bogdan.fullstackproject.customer.repository;
 
 import com.bogdan.fullstackproject.AbstractTestcontainers;
+import com.bogdan.fullstackproject.customer.dao.CustomerColumnUpdates;
 import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
+import com.bogdan.fullstackproject.customer.model.CustomerSortField;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
 import com.bogdan.fullstackproject.customer.model.Gender;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -40,6 +47,9 @@ class CustomerRepositoryTest extends AbstractTestcontainers {
     @Autowired
     private CustomerRepository underTest;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @BeforeEach
     void setUp() {
         underTest.deleteAll();
@@ -60,6 +70,85 @@ class CustomerRepositoryTest extends AbstractTestcontainers {
         assertThat(actual).isTrue();
     }
 
+    @Test
+    void findCustomerByEmailIgnoresCase() {
+        //Given
+        Customer customer = getCustomer();
+        String email = customer.getEmail();
+
+        underTest.save(customer);
+
+        //When
+        Optional<Customer> actual = underTest.findCustomerByEmail(email.toUpperCase());
+
+        //Then
+        assertThat(actual).isPresent().hasValueSatisfying(c ->
+                assertThat(c.getEmail()).isEqualTo(email));
+    }
+
+    @Test
+    void findByNaturalEmail() {
+        //Given
+        Customer customer = getCustomer();
+        String email = customer.getEmail();
+
+        underTest.saveAndFlush(customer);
+
+        //When
+        Optional<Customer> actual = underTest.findByNaturalEmail(email.toUpperCase());
+
+        //Then
+        assertThat(actual).isPresent().hasValueSatisfying(c ->
+                assertThat(c.getEmail()).isEqualTo(email));
+    }
+
+    @Test
+    void updateColumnsRunsOneUpdateBeforeReturning() {
+        //Given
+        Customer customer = underTest.saveAndFlush(getCustomer());
+        CustomerColumnUpdates updates = CustomerColumnUpdates.of(new CustomerUpdateRequest("Updated", null, null));
+
+        //When
+        int actual = underTest.updateColumns(customer.getId(), updates);
+        int missing = underTest.updateColumns(-1, updates);
+
+        //Then
+        entityManager.clear();
+
+        assertThat(actual).isEqualTo(1);
+        assertThat(missing).isZero();
+        assertThat(underTest.findById(customer.getId())).hasValueSatisfying(c -> {
+            assertThat(c.getName()).isEqualTo("Updated");
+            assertThat(c.getVersion()).isEqualTo(customer.getVersion() + 1);
+        });
+    }
+
+    @Test
+    void findAllLimitedAppliesSpecificationOrderAndLimit() {
+        //Given
+        String marker = UUID.randomUUID().toString();
+        Customer anna = new Customer("Anna " + marker, "anna-" + marker + "@example.com", "password", 301, Gender.FEMALE);
+        Customer bella = new Customer("Bella " + marker, "bella-" + marker + "@example.com", "password", 301, Gender.FEMALE);
+        Customer carl = new Customer("Carl " + marker, "carl-" + marker + "@example.com", "password", 301, Gender.MALE);
+        underTest.saveAllAndFlush(List.of(anna, bella, carl));
+
+        CustomerQuery query = new CustomerQuery(
+                Gender.FEMALE, 301, 301, CustomerSortField.NAME, false, null, 1);
+
+        //When
+        List<Customer> firstPage = underTest.findAllLimited(
+                CustomerSpecifications.matching(query), CustomerSpecifications.sort(query), query.limit());
+
+        CustomerQuery next = new CustomerQuery(Gender.FEMALE, 301, 301, CustomerSortField.NAME, false,
+                new CustomerQuery.After(anna.getId(), anna.getName(), null), 10);
+        List<Customer> secondPage = underTest.findAllLimited(
+                CustomerSpecifications.matching(next), CustomerSpecifications.sort(next), next.limit());
+
+        //Then
+        assertThat(firstPage).extracting(Customer::getEmail).containsExactly(anna.getEmail());
+        assertThat(secondPage).extracting(Customer::getEmail).containsExactly(bella.getEmail());
+    }
+
     @Test
     void existsCustomerByEmailFailsWhenEmailNotPresent() {
         //Given
@@ -101,6 +190,28 @@ class CustomerRepositoryTest extends AbstractTestcontainers {
         assertThat(actual).isFalse();
     }
 
+    @Test
+    void saveAllAllocatesDistinctIdsNextToPlainInserts() {
+        //Given
+        getJdbcTemplate().update("""
+                INSERT INTO customer(name, email, password, age, gender)
+                VALUES ('Jill', ?, 'password', 25, 'FEMALE')
+                """, FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID());
+
+        //When
+        List<Customer> saved = underTest.saveAll(List.of(getCustomer(), getCustomer(), getCustomer()));
+        underTest.flush();
+
+        //Then
+        List<Integer> allIds = underTest.findAll()
+                .stream()
+                .map(Customer::getId)
+                .toList();
+
+        assertThat(saved).extracting(Customer::getId).doesNotContainNull();
+        assertThat(allIds).doesNotHaveDuplicates().hasSize(4);
+    }
+
     private Customer getCustomer() {
         return new Customer(
                 FAKER.name().fullName(),
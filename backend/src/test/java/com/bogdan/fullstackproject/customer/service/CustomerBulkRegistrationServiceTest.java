@@ -0,0 +1,202 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerDao;
+import com.bogdan.fullstackproject.customer.dto.CustomerBulkRegistrationDTO;
+import com.bogdan.fullstackproject.customer.dto.CustomerRegistrationOutcome;
+import com.bogdan.fullstackproject.customer.dto.CustomerRegistrationOutcome.Status;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerRegistrationRequest;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import com.bogdan.fullstackproject.exception.PasswordHashingUnavailableException;
+import com.bogdan.fullstackproject.exception.RequestValidationException;
+import com.bogdan.fullstackproject.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBulkRegistrationServiceTest {
+
+    @Mock
+    private CustomerDao customerDao;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private CustomerBulkRegistrationService underTest;
+
+    @BeforeEach
+    void setUp() {
+        // Runs the job on the calling thread, so it has finished when submit returns
+        underTest = new CustomerBulkRegistrationService(
+                customerDao, passwordEncoder, Runnable::run, 2, Duration.ofHours(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit() {
+        //Given
+        CustomerRegistrationRequest jill = new CustomerRegistrationRequest(
+                "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
+        CustomerRegistrationRequest taken = new CustomerRegistrationRequest(
+                "Alex", "alex@gmail.com", "password", 30, Gender.MALE);
+        CustomerRegistrationRequest repeated = new CustomerRegistrationRequest(
+                "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
+        CustomerRegistrationRequest invalid = new CustomerRegistrationRequest(
+                "Anna", null, "password", 22, Gender.FEMALE);
+
+        when(customerDao.selectExistingEmails(Set.of("jill@gmail.com", "alex@gmail.com")))
+                .thenReturn(Set.of("alex@gmail.com"));
+        when(passwordEncoder.encode("password")).thenReturn("gfsdyf7%$5");
+        when(customerDao.insertCustomersIfEmailAbsent(any())).thenReturn(Map.of("jill@gmail.com", 1));
+
+        //When
+        CustomerBulkRegistrationDTO submitted = underTest.submit(List.of(jill, taken, repeated, invalid));
+
+        //Then
+        CustomerBulkRegistrationDTO actual = underTest.getRegistration(submitted.id());
+        assertThat(actual.status()).isEqualTo(CustomerBulkRegistrationDTO.Status.COMPLETED);
+        assertThat(actual.processed()).isEqualTo(4);
+        assertThat(actual.outcomes()).extracting(CustomerRegistrationOutcome::status).containsExactly(
+                Status.INSERTED, Status.DUPLICATE_EMAIL, Status.DUPLICATE_EMAIL, Status.INVALID);
+
+        ArgumentCaptor<List<Customer>> customersArgumentCaptor = ArgumentCaptor.forClass(List.class);
+
+        verify(customerDao).insertCustomersIfEmailAbsent(customersArgumentCaptor.capture());
+
+        assertThat(customersArgumentCaptor.getValue())
+                .singleElement()
+                .satisfies(customer -> {
+                    assertThat(customer.getEmail()).isEqualTo(jill.email());
+                    assertThat(customer.getPassword()).isEqualTo("gfsdyf7%$5");
+                });
+    }
+
+    @Test
+    void submitReportsEmailTakenConcurrently() {
+        //Given
+        CustomerRegistrationRequest jill = new CustomerRegistrationRequest(
+                "Jill", "Jill@gmail.com", "password", 25, Gender.FEMALE);
+        CustomerRegistrationRequest alex = new CustomerRegistrationRequest(
+                "Alex", "alex@gmail.com", "password", 30, Gender.MALE);
+
+        when(customerDao.selectExistingEmails(Set.of("jill@gmail.com", "alex@gmail.com"))).thenReturn(Set.of());
+        when(passwordEncoder.encode("password")).thenReturn("gfsdyf7%$5");
+        // alex@gmail.com was registered after the existence check, so ON CONFLICT skipped it
+        when(customerDao.insertCustomersIfEmailAbsent(any())).thenReturn(Map.of("jill@gmail.com", 1));
+
+        //When
+        CustomerBulkRegistrationDTO actual = underTest.submit(List.of(jill, alex));
+
+        //Then
+        assertThat(underTest.getRegistration(actual.id()).outcomes())
+                .extracting(CustomerRegistrationOutcome::status)
+                .containsExactly(Status.INSERTED, Status.DUPLICATE_EMAIL);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submitInsertsInChunksAndCatchesRepeatsAcrossChunks() {
+        //Given
+        List<CustomerRegistrationRequest> requests = new ArrayList<>(IntStream.range(0, 600)
+                .mapToObj(i -> new CustomerRegistrationRequest(
+                        "Customer", "customer" + i + "@gmail.com", "password", 30, Gender.MALE))
+                .toList());
+        requests.add(requests.get(0));
+
+        when(customerDao.selectExistingEmails(any())).thenReturn(Set.of());
+        when(passwordEncoder.encode("password")).thenReturn("gfsdyf7%$5");
+        when(customerDao.insertCustomersIfEmailAbsent(any())).thenAnswer(invocation ->
+                ((List<Customer>) invocation.getArgument(0)).stream()
+                        .collect(Collectors.toMap(Customer::getEmail, customer -> 1)));
+
+        //When
+        CustomerBulkRegistrationDTO actual = underTest.getRegistration(underTest.submit(requests).id());
+
+        //Then
+        ArgumentCaptor<List<Customer>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(customerDao, times(2)).insertCustomersIfEmailAbsent(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(Collection::size).containsExactly(500, 100);
+
+        assertThat(actual.processed()).isEqualTo(601);
+        assertThat(actual.outcomes().get(600)).isEqualTo(new CustomerRegistrationOutcome(
+                600, "customer0@gmail.com", Status.DUPLICATE_EMAIL, "Email repeated in request"));
+    }
+
+    @Test
+    void submitRetriesHashesRejectedByAFullPool() {
+        //Given
+        CustomerRegistrationRequest jill = new CustomerRegistrationRequest(
+                "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
+
+        when(customerDao.selectExistingEmails(Set.of("jill@gmail.com"))).thenReturn(Set.of());
+        when(passwordEncoder.encode("password"))
+                .thenThrow(new PasswordHashingUnavailableException("Too many concurrent password operations"))
+                .thenReturn("gfsdyf7%$5");
+        when(customerDao.insertCustomersIfEmailAbsent(any())).thenReturn(Map.of("jill@gmail.com", 1));
+
+        //When
+        CustomerBulkRegistrationDTO actual = underTest.getRegistration(underTest.submit(List.of(jill)).id());
+
+        //Then
+        assertThat(actual.outcomes()).extracting(CustomerRegistrationOutcome::status)
+                .containsExactly(Status.INSERTED);
+        verify(passwordEncoder, times(2)).encode("password");
+    }
+
+    @Test
+    void submitMarksRegistrationFailedWhenChunkFails() {
+        //Given
+        CustomerRegistrationRequest jill = new CustomerRegistrationRequest(
+                "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
+
+        when(customerDao.selectExistingEmails(Set.of("jill@gmail.com")))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        //When
+        CustomerBulkRegistrationDTO actual = underTest.getRegistration(underTest.submit(List.of(jill)).id());
+
+        //Then
+        assertThat(actual.status()).isEqualTo(CustomerBulkRegistrationDTO.Status.FAILED);
+        assertThat(actual.processed()).isZero();
+        assertThat(actual.error()).isNotBlank();
+        verify(customerDao, never()).insertCustomersIfEmailAbsent(any());
+    }
+
+    @Test
+    void throwExceptionWhenBulkRegistrationEmpty() {
+        //When
+        assertThatThrownBy(() -> underTest.submit(List.of()))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Bulk registration must contain between 1 and 50000 customers");
+
+        //Then
+        verify(customerDao, never()).insertCustomersIfEmailAbsent(any());
+    }
+
+    @Test
+    void throwExceptionWhenRegistrationUnknown() {
+        //When
+        assertThatThrownBy(() -> underTest.getRegistration("unknown"))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Bulk registration with id [unknown] not found");
+    }
+}
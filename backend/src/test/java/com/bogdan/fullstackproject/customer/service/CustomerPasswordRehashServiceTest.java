@@ -0,0 +1,71 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerDao;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerPasswordRehashServiceTest {
+
+    @Mock
+    private CustomerDao customerDao;
+
+    @Mock
+    private CustomerUserDetailsService customerUserDetailsService;
+
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private final Customer customer = new Customer(10, "Jill", "jill@gmail.com",
+            "old-hash", 25, Gender.FEMALE);
+
+    @Test
+    void updatePasswordWritesAfterReturning() {
+        //Given
+        CustomerPasswordRehashService underTest =
+                new CustomerPasswordRehashService(customerDao, customerUserDetailsService, tasks::add);
+        when(customerDao.updateCustomerPassword(10, "new-hash")).thenReturn(true);
+
+        //When
+        UserDetails actual = underTest.updatePassword(customer, "new-hash");
+
+        //Then
+        assertThat(actual.getPassword()).isEqualTo("new-hash");
+        assertThat(actual.getUsername()).isEqualTo("jill@gmail.com");
+        verifyNoInteractions(customerDao);
+
+        tasks.forEach(Runnable::run);
+        verify(customerDao).updateCustomerPassword(10, "new-hash");
+        verify(customerUserDetailsService).evictCustomer(10);
+    }
+
+    @Test
+    void updatePasswordKeepsLoginWorkingWhenRejected() {
+        //Given
+        CustomerPasswordRehashService underTest = new CustomerPasswordRehashService(
+                customerDao, customerUserDetailsService, task -> {
+                    throw new TaskRejectedException("full");
+                });
+
+        //When
+        UserDetails actual = underTest.updatePassword(customer, "new-hash");
+
+        //Then
+        assertThat(actual.getPassword()).isEqualTo("new-hash");
+        verify(customerUserDetailsService, never()).evictCustomer(10);
+    }
+}
@@ -2,12 +2,17 @@ package com.bogdan.fullstackproject.customer.service;
 
 import com.bogdan.fullstackproject.customer.dao.CustomerDao;
 import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
+import com.bogdan.fullstackproject.customer.dto.CustomerPageDTO;
+import com.bogdan.fullstackproject.customer.dto.VersionedCustomerDTO;
 import com.bogdan.fullstackproject.customer.mapper.CustomerMapper;
 import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerQuery;
 import com.bogdan.fullstackproject.customer.model.CustomerRegistrationRequest;
+import com.bogdan.fullstackproject.customer.model.CustomerSortField;
 import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
 import com.bogdan.fullstackproject.customer.model.Gender;
 import com.bogdan.fullstackproject.exception.DuplicateResourceException;
+import com.bogdan.fullstackproject.exception.PreconditionFailedException;
 import com.bogdan.fullstackproject.exception.RequestValidationException;
 import com.bogdan.fullstackproject.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,8 +21,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -43,13 +52,16 @@ class CustomerServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private CustomerUserDetailsService customerUserDetailsService;
+
     private CustomerService underTest;
 
     private final CustomerMapper customerMapper = new CustomerMapper();
 
     @BeforeEach
     void setUp() {
-        underTest = new CustomerService(customerDao, customerMapper, passwordEncoder);
+        underTest = new CustomerService(customerDao, customerMapper, passwordEncoder, customerUserDetailsService);
     }
 
     @Test
@@ -61,6 +73,128 @@ class CustomerServiceTest {
         verify(customerDao).selectAllCustomers();
     }
 
+    @Test
+    void getCustomersPage() {
+        //Given
+        Customer first = new Customer(1, "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
+        Customer second = new Customer(2, "Alex", "alex@gmail.com", "password", 30, Gender.MALE);
+        Customer third = new Customer(3, "Anna", "anna@gmail.com", "password", 22, Gender.FEMALE);
+
+        when(customerDao.selectCustomersAfter(0, 3)).thenReturn(List.of(first, second, third));
+
+        //When
+        CustomerPageDTO actual = underTest.getCustomersPage(null, 2);
+
+        //Then
+        assertThat(actual.customers()).extracting(CustomerDTO::id).containsExactly(1, 2);
+        assertThat(actual.nextCursor()).isNotNull();
+
+        //Following the cursor continues after the last returned id
+        when(customerDao.selectCustomersAfter(2, 3)).thenReturn(List.of(third));
+
+        CustomerPageDTO next = underTest.getCustomersPage(actual.nextCursor(), 2);
+
+        assertThat(next.customers()).extracting(CustomerDTO::id).containsExactly(3);
+        assertThat(next.nextCursor()).isNull();
+    }
+
+    @Test
+    void queryCustomers() {
+        //Given
+        Customer first = new Customer(7, "Anna", "anna@gmail.com", "password", 22, Gender.FEMALE);
+        Customer second = new Customer(3, "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
+
+        when(customerDao.selectCustomers(new CustomerQuery(
+                Gender.FEMALE, 18, 30, CustomerSortField.NAME, false, null, 2)))
+                .thenReturn(List.of(first, second));
+
+        //When
+        CustomerPageDTO actual = underTest.queryCustomers("female", 18, 30, "name", null, 1);
+
+        //Then
+        assertThat(actual.customers()).extracting(CustomerDTO::id).containsExactly(7);
+        assertThat(actual.nextCursor()).isNotNull();
+
+        //Following the cursor continues after the (name, id) of the last returned customer
+        when(customerDao.selectCustomers(new CustomerQuery(
+                Gender.FEMALE, 18, 30, CustomerSortField.NAME, false,
+                new CustomerQuery.After(7, "Anna", null), 2)))
+                .thenReturn(List.of(second));
+
+        CustomerPageDTO next = underTest.queryCustomers("female", 18, 30, "name", actual.nextCursor(), 1);
+
+        assertThat(next.customers()).extracting(CustomerDTO::id).containsExactly(3);
+        assertThat(next.nextCursor()).isNull();
+    }
+
+    @Test
+    void throwExceptionWhenQuerySortInvalid() {
+        //When
+        assertThatThrownBy(() -> underTest.queryCustomers(null, null, null, "email,desc", null, 10))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Invalid sort [email,desc]");
+
+        //Then
+        verify(customerDao, never()).selectCustomers(any());
+    }
+
+    @Test
+    void searchCustomers() {
+        //Given
+        Customer first = new Customer(1, "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
+        Customer second = new Customer(2, "Jillian", "jillian@gmail.com", "password", 30, Gender.FEMALE);
+
+        when(customerDao.searchCustomers("jill", 0, 2)).thenReturn(List.of(first, second));
+
+        //When
+        CustomerPageDTO actual = underTest.searchCustomers("  jill ", null, 1);
+
+        //Then
+        assertThat(actual.customers()).extracting(CustomerDTO::id).containsExactly(1);
+        assertThat(actual.nextCursor()).isNotNull();
+
+        //Following the cursor continues at the next offset
+        when(customerDao.searchCustomers("jill", 1, 2)).thenReturn(List.of(second));
+
+        CustomerPageDTO next = underTest.searchCustomers("jill", actual.nextCursor(), 1);
+
+        assertThat(next.customers()).extracting(CustomerDTO::id).containsExactly(2);
+        assertThat(next.nextCursor()).isNull();
+    }
+
+    @Test
+    void throwExceptionWhenSearchQueryTooShort() {
+        //When
+        assertThatThrownBy(() -> underTest.searchCustomers("ji", null, 10))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Search query must be between 3 and 100 characters");
+
+        //Then
+        verify(customerDao, never()).searchCustomers(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void throwExceptionWhenPageCursorInvalid() {
+        //When
+        assertThatThrownBy(() -> underTest.getCustomersPage("not-a-cursor", 10))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Invalid cursor [not-a-cursor]");
+
+        //Then
+        verify(customerDao, never()).selectCustomersAfter(any(), anyInt());
+    }
+
+    @Test
+    void throwExceptionWhenPageLimitOutOfRange() {
+        //When
+        assertThatThrownBy(() -> underTest.getCustomersPage(null, 0))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Page limit must be between 1 and 1000");
+
+        //Then
+        verify(customerDao, never()).selectCustomersAfter(any(), anyInt());
+    }
+
     @Test
     void getCustomer() {
         //Given
@@ -80,6 +214,25 @@ class CustomerServiceTest {
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    void getVersionedCustomer() {
+        //Given
+        int customerId = 10;
+
+        Customer customer = new Customer(customerId, "Jill", "jill@gmail.com",
+                "password", 25, Gender.UNSELECTED);
+        customer.setVersion(3);
+
+        when(customerDao.selectCustomerById(customerId)).thenReturn(Optional.of(customer));
+
+        //When
+        VersionedCustomerDTO actual = underTest.getVersionedCustomer(customerId);
+
+        //Then
+        assertThat(actual.customer()).isEqualTo(customerMapper.apply(customer));
+        assertThat(actual.version()).isEqualTo(3);
+    }
+
     @Test
     void throwExceptionWhenGetCustomerEmpty() {
         //Given
@@ -96,27 +249,26 @@ class CustomerServiceTest {
     @Test
     void addCustomer() {
         //Given
-        String email = "jill@gmail.com";
-
-        when(customerDao.existsCustomerWithEmail(email)).thenReturn(false);
-
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
                 "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
 
         String passwordHash = "gfsdyf7%$5";
 
         when(passwordEncoder.encode(request.password())).thenReturn(passwordHash);
+        when(customerDao.insertCustomerIfEmailAbsent(any())).thenReturn(Optional.of(1));
 
         //When
-        underTest.addCustomer(request);
+        Integer actual = underTest.addCustomer(request);
 
         //Then
         ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
 
-        verify(customerDao).insertCustomer(customerArgumentCaptor.capture());
+        verify(customerDao).insertCustomerIfEmailAbsent(customerArgumentCaptor.capture());
+        verify(customerDao, never()).existsCustomerWithEmail(any());
 
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
+        assertThat(actual).isEqualTo(1);
         assertThat(capturedCustomer.getId()).isNull();
         assertThat(capturedCustomer.getName()).isEqualTo(request.name());
         assertThat(capturedCustomer.getEmail()).isEqualTo(request.email());
@@ -127,13 +279,11 @@ class CustomerServiceTest {
     @Test
     void throwExceptionWhenEmailExistsWhileAddingCustomer() {
         //Given
-        String email = "jill@gmail.com";
-
-        when(customerDao.existsCustomerWithEmail(email)).thenReturn(true);
-
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
                 "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
 
+        when(customerDao.insertCustomerIfEmailAbsent(any())).thenReturn(Optional.empty());
+
         //When
         assertThatThrownBy(() -> underTest.addCustomer(request))
                 .isInstanceOf(DuplicateResourceException.class)
@@ -155,6 +305,7 @@ class CustomerServiceTest {
 
         //Then
         verify(customerDao).deleteCustomerById(customerId);
+        verify(customerUserDetailsService).evictCustomer(customerId);
     }
 
     @Test
@@ -182,6 +333,7 @@ class CustomerServiceTest {
                 "password", 25, Gender.FEMALE);
 
         when(customerDao.selectCustomerById(customerId)).thenReturn(Optional.of(customer));
+        when(customerDao.patchCustomer(eq(customerId), any())).thenReturn(true);
 
         String newEmail = "alex@gmail.com";
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Alex", newEmail, 20);
@@ -192,15 +344,8 @@ class CustomerServiceTest {
         underTest.updateCustomer(customerId, updateRequest);
 
         //Then
-        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
-
-        verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
-
-        Customer capturedCustomer = customerArgumentCaptor.getValue();
-
-        assertThat(capturedCustomer.getName()).isEqualTo(updateRequest.name());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(updateRequest.email());
-        assertThat(capturedCustomer.getAge()).isEqualTo(updateRequest.age());
+        verify(customerDao).patchCustomer(customerId, new CustomerUpdateRequest("Alex", newEmail, 20));
+        verify(customerUserDetailsService).evictCustomer(customerId);
     }
 
     @Test
@@ -212,6 +357,7 @@ class CustomerServiceTest {
                 "password", 25, Gender.FEMALE);
 
         when(customerDao.selectCustomerById(customerId)).thenReturn(Optional.of(customer));
+        when(customerDao.patchCustomer(eq(customerId), any())).thenReturn(true);
 
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Alex", null, null);
 
@@ -219,15 +365,8 @@ class CustomerServiceTest {
         underTest.updateCustomer(customerId, updateRequest);
 
         //Then
-        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
-
-        verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
-
-        Customer capturedCustomer = customerArgumentCaptor.getValue();
-
-        assertThat(capturedCustomer.getName()).isEqualTo(updateRequest.name());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(customer.getEmail());
-        assertThat(capturedCustomer.getAge()).isEqualTo(customer.getAge());
+        verify(customerDao).patchCustomer(customerId, new CustomerUpdateRequest("Alex", null, null));
+        verify(customerUserDetailsService).evictCustomer(customerId);
     }
 
     @Test
@@ -239,6 +378,7 @@ class CustomerServiceTest {
                 "password", 25, Gender.FEMALE);
 
         when(customerDao.selectCustomerById(customerId)).thenReturn(Optional.of(customer));
+        when(customerDao.patchCustomer(eq(customerId), any())).thenReturn(true);
 
         String newEmail = "alex@gmail.com";
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(null, newEmail, null);
@@ -249,15 +389,8 @@ class CustomerServiceTest {
         underTest.updateCustomer(customerId, updateRequest);
 
         //Then
-        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
-
-        verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
-
-        Customer capturedCustomer = customerArgumentCaptor.getValue();
-
-        assertThat(capturedCustomer.getName()).isEqualTo(customer.getName());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(newEmail);
-        assertThat(capturedCustomer.getAge()).isEqualTo(customer.getAge());
+        verify(customerDao).patchCustomer(customerId, new CustomerUpdateRequest(null, newEmail, null));
+        verify(customerUserDetailsService).evictCustomer(customerId);
     }
 
     @Test
@@ -269,6 +402,7 @@ class CustomerServiceTest {
                 "password", 25, Gender.FEMALE);
 
         when(customerDao.selectCustomerById(customerId)).thenReturn(Optional.of(customer));
+        when(customerDao.patchCustomer(eq(customerId), any())).thenReturn(true);
 
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(null, null, 24);
 
@@ -276,15 +410,8 @@ class CustomerServiceTest {
         underTest.updateCustomer(customerId, updateRequest);
 
         //Then
-        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
-
-        verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
-
-        Customer capturedCustomer = customerArgumentCaptor.getValue();
-
-        assertThat(capturedCustomer.getName()).isEqualTo(customer.getName());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(customer.getEmail());
-        assertThat(capturedCustomer.getAge()).isEqualTo(updateRequest.age());
+        verify(customerDao).patchCustomer(customerId, new CustomerUpdateRequest(null, null, 24));
+        verify(customerUserDetailsService).evictCustomer(customerId);
     }
 
     @Test
@@ -308,7 +435,7 @@ class CustomerServiceTest {
                 .hasMessage("Email already taken");
 
         //Then
-        verify(customerDao, never()).updateCustomer(any());
+        verify(customerDao, never()).patchCustomer(any(), any());
     }
 
     @Test
@@ -329,7 +456,176 @@ class CustomerServiceTest {
                 .hasMessage("No data changes found");
 
         //Then
-        verify(customerDao, never()).updateCustomer(any());
+        verify(customerDao, never()).patchCustomer(any(), any());
+    }
+
+    @Test
+    void updateCustomerIfVersion() {
+        //Given
+        int customerId = 10;
+        CustomerUpdateRequest update = new CustomerUpdateRequest("Alex", "alex@gmail.com", null);
+
+        when(customerDao.updateCustomerIfVersion(customerId, 3, update)).thenReturn(Optional.of(4L));
+
+        //When
+        long actual = underTest.updateCustomer(customerId, 3, update);
+
+        //Then
+        assertThat(actual).isEqualTo(4);
+        verify(customerDao, never()).selectCustomerById(any());
+        verify(customerDao, never()).existsCustomerWithEmail(any());
+        verify(customerUserDetailsService).evictCustomer(customerId);
+    }
+
+    @Test
+    void throwPreconditionFailedWhenUpdatingStaleVersion() {
+        //Given
+        int customerId = 10;
+        CustomerUpdateRequest update = new CustomerUpdateRequest("Alex", null, null);
+
+        when(customerDao.updateCustomerIfVersion(customerId, 3, update)).thenReturn(Optional.empty());
+        when(customerDao.existsCustomerWithId(customerId)).thenReturn(true);
+
+        //When
+        assertThatThrownBy(() -> underTest.updateCustomer(customerId, 3, update))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("Customer with id [%s] has been modified".formatted(customerId));
+
+        //Then
+        verify(customerUserDetailsService, never()).evictCustomer(any());
+    }
+
+    @Test
+    void throwNotFoundWhenUpdatingMissingCustomerVersion() {
+        //Given
+        int customerId = 10;
+        CustomerUpdateRequest update = new CustomerUpdateRequest("Alex", null, null);
+
+        when(customerDao.updateCustomerIfVersion(customerId, 3, update)).thenReturn(Optional.empty());
+        when(customerDao.existsCustomerWithId(customerId)).thenReturn(false);
+
+        //When
+        assertThatThrownBy(() -> underTest.updateCustomer(customerId, 3, update))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Customer with id [%s] not found".formatted(customerId));
+    }
+
+    @Test
+    void throwDuplicateWhenVersionedUpdateHitsEmailIndex() {
+        //Given
+        int customerId = 10;
+        CustomerUpdateRequest update = new CustomerUpdateRequest(null, "alex@gmail.com", null);
+
+        when(customerDao.updateCustomerIfVersion(customerId, 3, update))
+                .thenThrow(new DuplicateKeyException("customer_email_unique", new SQLException(
+                        "ERROR: duplicate key value violates unique constraint \"customer_email_unique\"", "23505")));
+
+        //When
+        assertThatThrownBy(() -> underTest.updateCustomer(customerId, 3, update))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("Email already taken");
+
+        //Then
+        verify(customerDao, never()).existsCustomerWithId(any());
+    }
+
+    @Test
+    void rethrowOtherIntegrityViolationsOfVersionedUpdate() {
+        //Given
+        int customerId = 10;
+        CustomerUpdateRequest update = new CustomerUpdateRequest(null, "alex@gmail.com", null);
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("customer_email_lower_case",
+                new SQLException("ERROR: new row for relation \"customer\" violates check constraint "
+                        + "\"customer_email_lower_case\"", "23514"));
+
+        when(customerDao.updateCustomerIfVersion(customerId, 3, update)).thenThrow(violation);
+
+        //When
+        assertThatThrownBy(() -> underTest.updateCustomer(customerId, 3, update))
+                .isSameAs(violation);
+    }
+
+    @Test
+    void patchCustomer() {
+        //Given
+        int customerId = 10;
+        CustomerUpdateRequest patch = new CustomerUpdateRequest("Alex", null, null);
+
+        when(customerDao.patchCustomer(customerId, patch)).thenReturn(true);
+
+        //When
+        underTest.patchCustomer(customerId, patch);
+
+        //Then
+        verify(customerDao, never()).selectCustomerById(any());
+        verify(customerDao, never()).selectUserByEmail(any());
+        verify(customerUserDetailsService).evictCustomer(customerId);
+    }
+
+    @Test
+    void patchCustomerKeepingOwnEmail() {
+        //Given
+        int customerId = 10;
+        Customer customer = new Customer(customerId, "Jill", "jill@gmail.com",
+                "password", 25, Gender.FEMALE);
+        CustomerUpdateRequest patch = new CustomerUpdateRequest(null, customer.getEmail(), 26);
+
+        when(customerDao.selectUserByEmail(customer.getEmail())).thenReturn(Optional.of(customer));
+        when(customerDao.patchCustomer(customerId, patch)).thenReturn(true);
+
+        //When
+        underTest.patchCustomer(customerId, patch);
+
+        //Then
+        verify(customerDao).patchCustomer(customerId, patch);
+    }
+
+    @Test
+    void throwExceptionWhilePatchingCustomerEmailWhenAlreadyTaken() {
+        //Given
+        int customerId = 10;
+        Customer owner = new Customer(11, "Alex", "alex@gmail.com",
+                "password", 25, Gender.MALE);
+        CustomerUpdateRequest patch = new CustomerUpdateRequest(null, owner.getEmail(), null);
+
+        when(customerDao.selectUserByEmail(owner.getEmail())).thenReturn(Optional.of(owner));
+
+        //When
+        assertThatThrownBy(() -> underTest.patchCustomer(customerId, patch))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("Email already taken");
+
+        //Then
+        verify(customerDao, never()).patchCustomer(any(), any());
+    }
+
+    @Test
+    void throwExceptionWhilePatchingCustomerNotExists() {
+        //Given
+        int customerId = 10;
+        CustomerUpdateRequest patch = new CustomerUpdateRequest("Alex", null, null);
+
+        when(customerDao.patchCustomer(customerId, patch)).thenReturn(false);
+
+        //Then
+        assertThatThrownBy(() -> underTest.patchCustomer(customerId, patch))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Customer with id [%s] not found".formatted(customerId));
+    }
+
+    @Test
+    void throwExceptionWhenCustomerPatchIsEmpty() {
+        //Given
+        int customerId = 10;
+        CustomerUpdateRequest patch = new CustomerUpdateRequest(null, null, null);
+
+        //When
+        assertThatThrownBy(() -> underTest.patchCustomer(customerId, patch))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("No data changes found");
+
+        //Then
+        verify(customerDao, never()).patchCustomer(any(), any());
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerJDBCDataAccessService;
+import com.bogdan.fullstackproject.customer.dto.CustomerDTO;
+import com.bogdan.fullstackproject.customer.mapper.CustomerMapper;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStreamServiceTest {
+
+    @Mock
+    private CustomerJDBCDataAccessService customerDao;
+
+    private CustomerStreamService underTest;
+
+    private final CustomerMapper customerMapper = new CustomerMapper();
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerStreamService(customerDao, customerMapper);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllCustomers() {
+        //Given
+        Customer jill = new Customer(1, "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
+        Customer alex = new Customer(2, "Alex", "alex@gmail.com", "password", 30, Gender.MALE);
+
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(1);
+            consumer.accept(jill);
+            consumer.accept(alex);
+            return null;
+        }).when(customerDao).streamAllCustomers(anyInt(), any(Consumer.class));
+
+        //When
+        List<CustomerDTO> actual = new ArrayList<>();
+        underTest.streamAllCustomers(actual::add);
+
+        //Then
+        assertThat(actual).containsExactly(customerMapper.apply(jill), customerMapper.apply(alex));
+    }
+}
@@ -0,0 +1,78 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.dao.CustomerDao;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerUserDetailsServiceTest {
+
+    @Mock
+    private CustomerDao customerDao;
+
+    private CustomerUserDetailsService underTest;
+
+    private final Customer customer = new Customer(10, "Jill", "jill@gmail.com",
+            "password", 25, Gender.FEMALE);
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerUserDetailsService(customerDao, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void loadUserByUsernameIsCached() {
+        //Given
+        when(customerDao.selectUserByEmail("jill@gmail.com")).thenReturn(Optional.of(customer));
+
+        //When
+        UserDetails first = underTest.loadUserByUsername("jill@gmail.com");
+        UserDetails second = underTest.loadUserByUsername("jill@gmail.com");
+
+        //Then
+        assertThat(first).isEqualTo(customer);
+        assertThat(second).isSameAs(first);
+        verify(customerDao, times(1)).selectUserByEmail("jill@gmail.com");
+    }
+
+    @Test
+    void evictCustomerForcesReload() {
+        //Given
+        when(customerDao.selectUserByEmail("jill@gmail.com")).thenReturn(Optional.of(customer));
+        underTest.loadUserByUsername("jill@gmail.com");
+
+        //When
+        underTest.evictCustomer(customer.getId());
+        underTest.loadUserByUsername("jill@gmail.com");
+
+        //Then
+        verify(customerDao, times(2)).selectUserByEmail("jill@gmail.com");
+    }
+
+    @Test
+    void throwExceptionWhenUsernameNotFound() {
+        //Given
+        when(customerDao.selectUserByEmail("jill@gmail.com")).thenReturn(Optional.empty());
+
+        //Then
+        assertThatThrownBy(() -> underTest.loadUserByUsername("jill@gmail.com"))
+                .isInstanceOf(UsernameNotFoundException.class)
+                .hasMessage("Username jill@gmail.com not found");
+    }
+}
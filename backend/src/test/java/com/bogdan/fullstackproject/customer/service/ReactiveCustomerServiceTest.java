@@ -0,0 +1,146 @@
+package com.bogdan.fullstackproject.customer.service;
+
+import com.bogdan.fullstackproject.customer.dao.ReactiveCustomerDao;
+import com.bogdan.fullstackproject.customer.mapper.CustomerMapper;
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.CustomerRegistrationRequest;
+import com.bogdan.fullstackproject.customer.model.CustomerUpdateRequest;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import com.bogdan.fullstackproject.exception.DuplicateResourceException;
+import com.bogdan.fullstackproject.exception.RequestValidationException;
+import com.bogdan.fullstackproject.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCustomerServiceTest {
+
+    @Mock
+    private ReactiveCustomerDao customerDao;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private ReactiveCustomerService underTest;
+
+    private final CustomerMapper customerMapper = new CustomerMapper();
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReactiveCustomerService(customerDao, customerMapper, passwordEncoder);
+    }
+
+    @Test
+    void getCustomersPage() {
+        //Given
+        when(customerDao.selectCustomersAfter(0, 3)).thenReturn(Flux.just(
+                new Customer(1, "Alex", "alex@gmail.com", "password", 19, Gender.MALE),
+                new Customer(2, "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE),
+                new Customer(3, "John", "john@gmail.com", "password", 30, Gender.MALE)));
+
+        //Then
+        StepVerifier.create(underTest.getCustomersPage(null, 2))
+                .assertNext(page -> {
+                    assertThat(page.customers()).hasSize(2);
+                    assertThat(page.nextCursor()).isEqualTo(CustomerCursor.encode(2));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getCustomerWillThrowWhenIdDoesNotExist() {
+        //Given
+        when(customerDao.selectCustomerById(10)).thenReturn(Mono.empty());
+
+        //Then
+        StepVerifier.create(underTest.getCustomer(10))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(ResourceNotFoundException.class)
+                        .hasMessage("Customer with id [10] not found"))
+                .verify();
+    }
+
+    @Test
+    void addCustomer() {
+        //Given
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+                "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+        when(passwordEncoder.encode("password")).thenReturn("encoded");
+        when(customerDao.insertCustomerIfEmailAbsent(any())).thenReturn(Mono.just(7));
+
+        //Then
+        StepVerifier.create(underTest.addCustomer(request))
+                .expectNext(7)
+                .verifyComplete();
+
+        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerDao).insertCustomerIfEmailAbsent(customerArgumentCaptor.capture());
+        assertThat(customerArgumentCaptor.getValue().getPassword()).isEqualTo("encoded");
+    }
+
+    @Test
+    void addCustomerWillThrowWhenEmailExists() {
+        //Given
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+                "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+        when(passwordEncoder.encode("password")).thenReturn("encoded");
+        when(customerDao.insertCustomerIfEmailAbsent(any())).thenReturn(Mono.empty());
+
+        //Then
+        StepVerifier.create(underTest.addCustomer(request))
+                .expectError(DuplicateResourceException.class)
+                .verify();
+    }
+
+    @Test
+    void updateCustomerWillThrowWhenNoChanges() {
+        //Given
+        when(customerDao.selectCustomerById(10)).thenReturn(Mono.just(
+                new Customer(10, "Alex", "alex@gmail.com", "password", 19, Gender.MALE)));
+
+        //Then
+        StepVerifier.create(underTest.updateCustomer(10, new CustomerUpdateRequest("Alex", null, 19)))
+                .expectError(RequestValidationException.class)
+                .verify();
+        verify(customerDao, never()).patchCustomer(any(), any());
+    }
+
+    @Test
+    void patchCustomerWillThrowWhenEmailTakenByAnotherCustomer() {
+        //Given
+        CustomerUpdateRequest patch = new CustomerUpdateRequest(null, "jill@gmail.com", null);
+        when(customerDao.selectUserByEmail("jill@gmail.com")).thenReturn(Mono.just(
+                new Customer(2, "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE)));
+        when(customerDao.patchCustomer(10, patch)).thenReturn(Mono.just(true));
+
+        //Then
+        StepVerifier.create(underTest.patchCustomer(10, patch))
+                .expectError(DuplicateResourceException.class)
+                .verify();
+    }
+
+    @Test
+    void deleteCustomerWillThrowWhenIdDoesNotExist() {
+        //Given
+        when(customerDao.deleteCustomerById(10)).thenReturn(Mono.just(false));
+
+        //Then
+        StepVerifier.create(underTest.deleteCustomer(10))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,172 @@
+package com.bogdan.fullstackproject.datasource;
+
+import com.bogdan.fullstackproject.AbstractTestcontainers;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two independent Postgres containers stand in for a primary and a replica. There is no
+ * replication between them, which makes it easy to tell which one a query was routed to:
+ * a row written to only one of them is visible only when reading from that one.
+ */
+
+class ReplicaRoutingDataSourceTest extends AbstractTestcontainers {
+
+    @Container
+    private static final PostgreSQLContainer<?> replicaContainer =
+            new PostgreSQLContainer<>("postgres:15.4")
+                    .withDatabaseName("customer-replica-unit-test")
+                    .withUsername("bogdan")
+                    .withPassword("password");
+
+    private static final String COUNT_BY_EMAIL = "SELECT COUNT(*) FROM customer WHERE email = ?";
+
+    private static final String INSERT = """
+            INSERT INTO customer(name, email, password, age, gender)
+            VALUES ('Jill', ?, 'password', 25, 'FEMALE')
+            """;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(
+                replicaContainer.getJdbcUrl(),
+                replicaContainer.getUsername(),
+                replicaContainer.getPassword()
+        ).load().migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource routingDataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                dataSourceFor(postgreSQLContainer),
+                List.of(dataSourceFor(replicaContainer)),
+                new ReadYourWritesWindow(Duration.ofMinutes(1))));
+
+        jdbcTemplate = new JdbcTemplate(routingDataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routingDataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void routesReadOnlyTransactionsToReplica() {
+        //Given
+        String email = newEmail();
+        new JdbcTemplate(dataSourceFor(replicaContainer)).update(INSERT, email);
+
+        //When
+        Integer readOnlyCount = readOnlyTransaction.execute(status ->
+                jdbcTemplate.queryForObject(COUNT_BY_EMAIL, Integer.class, email));
+        Integer readWriteCount = readWriteTransaction.execute(status ->
+                jdbcTemplate.queryForObject(COUNT_BY_EMAIL, Integer.class, email));
+
+        //Then
+        assertThat(readOnlyCount).isEqualTo(1);
+        assertThat(readWriteCount).isZero();
+    }
+
+    @Test
+    void routesReadsToPrimaryWithinReadYourWritesWindow() {
+        //Given
+        String email = newEmail();
+        authenticateAs(email);
+
+        readWriteTransaction.executeWithoutResult(status -> jdbcTemplate.update(INSERT, email));
+
+        //When
+        Integer writerCount = readOnlyTransaction.execute(status ->
+                jdbcTemplate.queryForObject(COUNT_BY_EMAIL, Integer.class, email));
+
+        authenticateAs(newEmail());
+        Integer otherCount = readOnlyTransaction.execute(status ->
+                jdbcTemplate.queryForObject(COUNT_BY_EMAIL, Integer.class, email));
+
+        //Then
+        assertThat(writerCount).isEqualTo(1);
+        assertThat(otherCount).isZero();
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinReadsToPrimary() {
+        //Given
+        String email = newEmail();
+        authenticateAs(email);
+        new JdbcTemplate(dataSourceFor(replicaContainer)).update(INSERT, email);
+
+        readWriteTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update(INSERT, newEmail());
+            status.setRollbackOnly();
+        });
+
+        //When
+        Integer count = readOnlyTransaction.execute(status ->
+                jdbcTemplate.queryForObject(COUNT_BY_EMAIL, Integer.class, email));
+
+        //Then
+        assertThat(count).isEqualTo(1);
+    }
+
+    @Test
+    void routesPrimaryReadsToPrimaryInReadOnlyTransactions() {
+        //Given
+        String email = newEmail();
+        new JdbcTemplate(dataSourceFor(postgreSQLContainer)).update(INSERT, email);
+
+        //When
+        Integer count = readOnlyTransaction.execute(status -> ReplicaRoutingDataSource.readFromPrimary(() ->
+                jdbcTemplate.queryForObject(COUNT_BY_EMAIL, Integer.class, email)));
+
+        //Then
+        assertThat(count).isEqualTo(1);
+    }
+
+    private static void authenticateAs(String principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    private static String newEmail() {
+        return FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+    }
+
+    private static DataSource dataSourceFor(PostgreSQLContainer<?> container) {
+        return DataSourceBuilder.create()
+                .driverClassName(container.getDriverClassName())
+                .url(container.getJdbcUrl())
+                .username(container.getUsername())
+                .password(container.getPassword())
+                .build();
+    }
+}
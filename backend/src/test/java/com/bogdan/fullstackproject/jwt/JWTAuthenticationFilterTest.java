@@ -0,0 +1,85 @@
+package com.bogdan.fullstackproject.jwt;
+
+import com.bogdan.fullstackproject.customer.model.Customer;
+import com.bogdan.fullstackproject.customer.model.Gender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+@ExtendWith(MockitoExtension.class)
+class JWTAuthenticationFilterTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private final JWTUtil jwtUtil = new JWTUtil(
+            "jwt@secret!key%test_jwt@secret!key%test_jwt@secret!key%test", Duration.ofMinutes(15), 0);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesThroughUserDetailsServiceByDefault() throws Exception {
+        //Given
+        Customer customer = new Customer(10, "Jill", "jill@gmail.com", "password", 25, Gender.FEMALE);
+        when(userDetailsService.loadUserByUsername("jill@gmail.com")).thenReturn(customer);
+
+        JWTAuthenticationFilter underTest = new JWTAuthenticationFilter(jwtUtil, userDetailsService, false);
+
+        //When
+        underTest.doFilter(requestWithToken(), new MockHttpServletResponse(), new MockFilterChain());
+
+        //Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isEqualTo(customer);
+    }
+
+    @Test
+    void authenticatesFromClaimsInStatelessMode() throws Exception {
+        //Given
+        JWTAuthenticationFilter underTest = new JWTAuthenticationFilter(jwtUtil, userDetailsService, true);
+
+        //When
+        underTest.doFilter(requestWithToken(), new MockHttpServletResponse(), new MockFilterChain());
+
+        //Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isInstanceOfSatisfying(JWTPrincipal.class, principal -> {
+            assertThat(principal.customerId()).isEqualTo(10);
+            assertThat(principal.username()).isEqualTo("jill@gmail.com");
+        });
+        assertThat(authentication.getName()).isEqualTo("jill@gmail.com");
+        assertThat(authentication.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    private MockHttpServletRequest requestWithToken() {
+        String token = jwtUtil.generateAccessToken("jill@gmail.com", 10, List.of("ROLE_USER"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers");
+        request.addHeader(AUTHORIZATION, "Bearer " + token);
+        return request;
+    }
+}
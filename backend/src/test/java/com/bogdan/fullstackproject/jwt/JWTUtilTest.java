@@ -0,0 +1,70 @@
+package com.bogdan.fullstackproject.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JWTUtilTest {
+
+    private static final String SECRET = "jwt@secret!key%test_jwt@secret!key%test_jwt@secret!key%test";
+
+    @Test
+    void getClaims() {
+        //Given
+        JWTUtil underTest = new JWTUtil(SECRET, Duration.ofMinutes(15), 0);
+        String token = underTest.generateAccessToken("jill@gmail.com", 10, List.of("ROLE_USER"));
+
+        //When
+        Claims actual = underTest.getClaims(token);
+
+        //Then
+        assertThat(actual.getSubject()).isEqualTo("jill@gmail.com");
+        assertThat(actual.get(JWTUtil.CUSTOMER_ID_CLAIM, Integer.class)).isEqualTo(10);
+        assertThat(underTest.isTokenValid(actual, "jill@gmail.com")).isTrue();
+    }
+
+    @Test
+    void getClaimsReturnsCachedClaimsForSameToken() {
+        //Given
+        JWTUtil underTest = new JWTUtil(SECRET, Duration.ofMinutes(15), 100);
+        String token = underTest.generateAccessToken("jill@gmail.com", "ROLE_USER");
+
+        //When
+        Claims first = underTest.getClaims(token);
+        Claims second = underTest.getClaims(token);
+
+        //Then
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        //Given
+        JWTUtil other = new JWTUtil(SECRET.replace('j', 'k'), Duration.ofMinutes(15), 0);
+        String token = other.generateAccessToken("jill@gmail.com", "ROLE_USER");
+
+        JWTUtil underTest = new JWTUtil(SECRET, Duration.ofMinutes(15), 100);
+
+        //Then
+        assertThatThrownBy(() -> underTest.getClaims(token))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        //Given
+        JWTUtil underTest = new JWTUtil(SECRET, Duration.ofMinutes(-1), 100);
+        String token = underTest.generateAccessToken("jill@gmail.com", "ROLE_USER");
+
+        //Then
+        assertThatThrownBy(() -> underTest.getClaims(token))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+}
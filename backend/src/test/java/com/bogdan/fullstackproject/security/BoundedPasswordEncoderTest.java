@@ -0,0 +1,111 @@
+package com.bogdan.fullstackproject.security;
+
+import com.bogdan.fullstackproject.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private BoundedPasswordEncoder underTest;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        underTest.close();
+    }
+
+    @Test
+    void encodeAndMatchesRunOnTheExecutor() {
+        //Given
+        underTest = new BoundedPasswordEncoder(new ThreadRecordingEncoder(), 1, 1, meterRegistry);
+
+        //When
+        String encoded = underTest.encode("password");
+
+        //Then
+        assertThat(encoded).startsWith("password-hashing-");
+        assertThat(underTest.matches("password", "password-hashing-1")).isTrue();
+        assertThat(meterRegistry.get("password.hashing").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("password.hashing").tag("operation", "matches").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWhenWorkersAndQueueAreFull() throws Exception {
+        //Given
+        underTest = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> underTest.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> underTest.encode("b"));
+        awaitQueueDepth(1);
+
+        //Then
+        assertThatThrownBy(() -> underTest.encode("c"))
+                .isInstanceOf(PasswordHashingUnavailableException.class);
+        assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+    }
+
+    private void awaitQueueDepth(double depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("password.hashing.queue.depth").gauge().value() < depth) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Queue never reached depth " + depth);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static class ThreadRecordingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return Thread.currentThread().getName();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return Thread.currentThread().getName().equals(encodedPassword);
+        }
+    }
+
+    private class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.bogdan.fullstackproject.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    void upgradeEncodingWhenStoredStrengthDiffers() {
+        //Given
+        CalibratedBCryptPasswordEncoder underTest = new CalibratedBCryptPasswordEncoder(5);
+
+        //Then
+        assertThat(underTest.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+        assertThat(underTest.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password"))).isTrue();
+        assertThat(underTest.upgradeEncoding(underTest.encode("password"))).isFalse();
+        assertThat(underTest.upgradeEncoding("not-a-bcrypt-hash")).isFalse();
+        assertThat(underTest.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    void calibrateNeverGoesBelowMinimumStrength() {
+        //When
+        int actual = CalibratedBCryptPasswordEncoder.calibrate(Duration.ZERO);
+
+        //Then
+        assertThat(actual).isEqualTo(CalibratedBCryptPasswordEncoder.MIN_STRENGTH);
+    }
+
+    @Test
+    void strengthOf() {
+        assertThat(CalibratedBCryptPasswordEncoder.strengthOf(
+                "$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW")).isEqualTo(12);
+    }
+}
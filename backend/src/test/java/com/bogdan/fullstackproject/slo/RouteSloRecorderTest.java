@@ -0,0 +1,90 @@
+package com.bogdan.fullstackproject.slo;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RouteSloRecorderTest {
+
+    private static final String ROUTE = "/api/v1/customers/{customerId}";
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final RouteSloRecorder underTest = new RouteSloRecorder(Duration.ofMillis(100), 0.99, clock::get);
+
+    @Test
+    void reportsPercentilesPerRouteAndStatusClass() {
+        //Given
+        for (int i = 1; i <= 100; i++) {
+            underTest.record("GET", ROUTE, 200, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        underTest.record("GET", ROUTE, 404, TimeUnit.MILLISECONDS.toNanos(2));
+
+        //When
+        SloReport report = underTest.report();
+
+        //Then
+        assertThat(report.routes()).singleElement().satisfies(route -> {
+            assertThat(route.method()).isEqualTo("GET");
+            assertThat(route.route()).isEqualTo(ROUTE);
+            SloReport.Window window = route.windows().get("1m");
+            assertThat(window.requests()).isEqualTo(101);
+            assertThat(window.statuses()).containsOnlyKeys("2xx", "4xx");
+            SloReport.Latency ok = window.statuses().get("2xx");
+            assertThat(ok.count()).isEqualTo(100);
+            assertThat(ok.p50Millis()).isCloseTo(50, within(50 * 0.125));
+            assertThat(ok.p99Millis()).isCloseTo(99, within(99 * 0.125));
+        });
+    }
+
+    @Test
+    void burnsErrorBudgetOnServerErrorsAndSlowRequests() {
+        //Given
+        for (int i = 0; i < 96; i++) {
+            underTest.record("POST", "/api/v1/auth/login", 200, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        underTest.record("POST", "/api/v1/auth/login", 200, TimeUnit.MILLISECONDS.toNanos(500));
+        underTest.record("POST", "/api/v1/auth/login", 200, TimeUnit.MILLISECONDS.toNanos(500));
+        underTest.record("POST", "/api/v1/auth/login", 503, TimeUnit.MILLISECONDS.toNanos(1));
+        underTest.record("POST", "/api/v1/auth/login", 503, TimeUnit.MILLISECONDS.toNanos(1));
+
+        //When
+        SloReport.Window window = underTest.report().routes().get(0).windows().get("5m");
+
+        //Then
+        assertThat(window.requests()).isEqualTo(100);
+        assertThat(window.badRequests()).isEqualTo(4);
+        // 4% bad against a 1% budget
+        assertThat(window.errorBudgetBurnRate()).isCloseTo(4.0, within(1e-9));
+    }
+
+    @Test
+    void dropsRequestsOlderThanTheWindow() {
+        //Given
+        underTest.record("GET", ROUTE, 200, TimeUnit.MILLISECONDS.toNanos(5));
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        underTest.record("GET", ROUTE, 200, TimeUnit.MILLISECONDS.toNanos(5));
+
+        //When
+        SloReport.Route route = underTest.report().routes().get(0);
+
+        //Then
+        assertThat(route.windows().get("1m").requests()).isEqualTo(1);
+        assertThat(route.windows().get("5m").requests()).isEqualTo(2);
+        assertThat(route.windows().get("15m").requests()).isEqualTo(2);
+    }
+
+    @Test
+    void bucketsBoundValuesWithinOneEighth() {
+        for (long micros : new long[]{0, 1, 15, 16, 17, 31, 1_000, 123_456, 9_999_999}) {
+            long upperBound = LatencyWindow.upperBoundMicros(LatencyWindow.bucket(micros));
+            assertThat(upperBound).isGreaterThanOrEqualTo(micros);
+            assertThat(upperBound).isLessThanOrEqualTo(micros + Math.max(micros / 8, 1));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.bogdan.fullstackproject.slowquery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlowQueryLogTest {
+
+    private static final String SELECT_BY_ID = """
+            SELECT id, name, email, password, age, gender
+            FROM customer
+            WHERE id = ?
+            """;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SlowQueryLog underTest = new SlowQueryLog(
+            meterRegistry, Duration.ofMillis(100), Duration.ofMinutes(10), 500, Runnable::run);
+
+    @Test
+    void fingerprintsIgnoreLiteralsAndFormatting() {
+        assertThat(StatementFingerprints.fingerprint(
+                "select *\n  from customer where email = 'a@b.c' and age > 18 and id in (1, 2,3)"))
+                .isEqualTo("select * from customer where email = ? and age > ? and id in (?)");
+        assertThat(StatementFingerprints.fingerprint("select c1_0.id from customer c1_0 where c1_0.id=?"))
+                .isEqualTo("select c1_0.id from customer c1_0 where c1_0.id=?");
+    }
+
+    @Test
+    void recordsStatementsUnderTheirFingerprint() {
+        //When
+        underTest.record(SELECT_BY_ID, TimeUnit.MILLISECONDS.toNanos(5), new Object[]{null, 1}, 1);
+        underTest.record(SELECT_BY_ID, TimeUnit.MILLISECONDS.toNanos(15), new Object[]{null, 2}, 1);
+
+        //Then
+        assertThat(underTest.top(10)).singleElement().satisfies(report -> {
+            assertThat(report.fingerprint())
+                    .isEqualTo("SELECT id, name, email, password, age, gender FROM customer WHERE id = ?");
+            assertThat(report.executions()).isEqualTo(2);
+            assertThat(report.slowExecutions()).isZero();
+            assertThat(report.plan()).isNull();
+        });
+        assertThat(meterRegistry.get("db.statement").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void capturesThePlanOfASlowStatementOncePerInterval() throws Exception {
+        //Given
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet plan = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(plan);
+        when(plan.next()).thenReturn(true, false);
+        when(plan.getString(1)).thenReturn("Index Scan using customer_pkey on customer");
+        underTest.setExplainDataSource(dataSource);
+
+        //When
+        underTest.record(SELECT_BY_ID, TimeUnit.MILLISECONDS.toNanos(250), new Object[]{null, 7}, 1);
+        underTest.record(SELECT_BY_ID, TimeUnit.MILLISECONDS.toNanos(300), new Object[]{null, 8}, 1);
+
+        //Then
+        verify(connection).prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + SELECT_BY_ID);
+        verify(statement).setObject(1, 7);
+        verify(statement, never()).setObject(1, 8);
+        verify(connection).rollback();
+        assertThat(underTest.top(10)).singleElement().satisfies(report -> {
+            assertThat(report.slowExecutions()).isEqualTo(2);
+            assertThat(report.plan()).isEqualTo("Index Scan using customer_pkey on customer\n");
+            assertThat(report.planCapturedAt()).isNotNull();
+        });
+    }
+
+    @Test
+    void explainsWritesWithoutExecutingThem() throws Exception {
+        //Given
+        String update = "UPDATE customer SET name = ? WHERE id = ?";
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet plan = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(plan);
+        underTest.setExplainDataSource(dataSource);
+
+        //When
+        underTest.record(update, TimeUnit.MILLISECONDS.toNanos(250), new Object[]{null, "Alex", 7}, 2);
+
+        //Then
+        verify(connection).prepareStatement("SET LOCAL lock_timeout = '500ms'");
+        verify(connection).prepareStatement("EXPLAIN " + update);
+        verify(connection, never()).prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + update);
+        verify(connection).rollback();
+    }
+
+    @Test
+    void analyzesOnlyReadOnlyStatements() {
+        assertThat(StatementFingerprints.isReadOnly(SELECT_BY_ID)).isTrue();
+        assertThat(StatementFingerprints.isReadOnly("WITH recent AS (SELECT id FROM customer) SELECT * FROM recent"))
+                .isTrue();
+        assertThat(StatementFingerprints.isReadOnly(
+                "WITH moved AS (DELETE FROM customer WHERE id = ? RETURNING id) SELECT * FROM moved")).isFalse();
+        assertThat(StatementFingerprints.isReadOnly("INSERT INTO customer(name) VALUES (?)")).isFalse();
+        assertThat(StatementFingerprints.isReadOnly("DELETE FROM customer WHERE id = ?")).isFalse();
+        assertThat(StatementFingerprints.isReadOnly("select nextval('customer_id_seq')")).isFalse();
+        assertThat(StatementFingerprints.isReadOnly("SELECT setval('customer_id_seq', ?)")).isFalse();
+        assertThat(StatementFingerprints.isReadOnly("SELECT * FROM customer WHERE id = ? FOR UPDATE")).isFalse();
+        assertThat(StatementFingerprints.isReadOnly("SELECT * FROM customer WHERE id = ? FOR NO KEY UPDATE")).isFalse();
+        assertThat(StatementFingerprints.isReadOnly("SELECT * FROM customer WHERE id = ? FOR SHARE")).isFalse();
+        assertThat(StatementFingerprints.isReadOnly("SELECT * FROM customer WHERE name = 'for update'")).isTrue();
+    }
+}
@@ -0,0 +1,171 @@
+package com.bogdan.fullstackproject.threads;
+
+import com.bogdan.fullstackproject.AbstractTestcontainers;
+import com.bogdan.fullstackproject.MainApplication;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.LOCATION;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Compares platform and virtual request threads on the list, get and login endpoints.
+ * Each mode boots the application against the Testcontainers database and drives every endpoint
+ * with `benchmark.concurrency` closed-loop clients; throughput, p50/p99 latency and non-2xx
+ * responses are printed per endpoint.
+ * ===
+ * Login hashes on the bounded password pool, which rejects work beyond its threads plus
+ * `password.hashing.queue-capacity` with 503. Its client count is capped at that capacity, so
+ * the login figures measure hashing throughput rather than rejections.
+ * ===
+ * Only runs on demand: mvn verify -Dbenchmark=true [-Dbenchmark.concurrency=400]
+ */
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ThreadModeBenchmarkIntegrationTest extends AbstractTestcontainers {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 400);
+
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+
+    private static final Duration MEASUREMENT = Duration.ofSeconds(15);
+
+    @ParameterizedTest(name = "virtual threads = {0}")
+    @ValueSource(booleans = {false, true})
+    void compareThreadModes(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MainApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                        "spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                        "spring.datasource.password=" + postgreSQLContainer.getPassword(),
+                        "spring.jpa.show-sql=false",
+                        "threads.virtual.enabled=" + virtualThreads)
+                .run();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient httpClient = HttpClient.newBuilder().executor(clients).build();
+
+            String email = "benchmark-" + UUID.randomUUID() + "@gmail.com";
+            HttpResponse<Void> registration = httpClient.send(
+                    post(baseUrl + "/api/v1/customers", """
+                            {"name":"Benchmark","email":"%s","password":"password","age":30,"gender":"MALE"}
+                            """.formatted(email)),
+                    HttpResponse.BodyHandlers.discarding());
+            String token = registration.headers().firstValue(AUTHORIZATION).orElseThrow();
+            String location = registration.headers().firstValue(LOCATION).orElseThrow();
+
+            Map<String, HttpRequest> endpoints = new LinkedHashMap<>();
+            endpoints.put("list", get(baseUrl + "/api/v1/customers", token));
+            endpoints.put("get", get(baseUrl + location, token));
+            endpoints.put("login", post(baseUrl + "/api/v1/auth/login", """
+                    {"username":"%s","password":"password"}
+                    """.formatted(email)));
+
+            Map<String, Integer> concurrency = Map.of(
+                    "list", CONCURRENCY,
+                    "get", CONCURRENCY,
+                    "login", Math.min(CONCURRENCY, hashingCapacity(context.getEnvironment())));
+
+            for (Map.Entry<String, HttpRequest> endpoint : endpoints.entrySet()) {
+                int clientCount = concurrency.get(endpoint.getKey());
+                drive(httpClient, clients, endpoint.getValue(), clientCount, WARM_UP);
+                Result result = drive(httpClient, clients, endpoint.getValue(), clientCount, MEASUREMENT);
+
+                System.out.printf("%-8s virtual=%-5s clients=%-4d %,10.0f req/s  p50 %7.2f ms  p99 %7.2f ms  errors %d%n",
+                        endpoint.getKey(), virtualThreads, clientCount, result.throughput(),
+                        result.percentileMillis(50), result.percentileMillis(99), result.errors());
+                assertThat(result.latencies()).isNotEmpty();
+            }
+        }
+    }
+
+    // Requests BoundedPasswordEncoder accepts at once: one per worker plus the queued ones
+    private static int hashingCapacity(Environment environment) {
+        int threads = environment.getProperty("password.hashing.threads", Integer.class, 0);
+        int queueCapacity = environment.getProperty("password.hashing.queue-capacity", Integer.class, 64);
+        return (threads > 0 ? threads : Runtime.getRuntime().availableProcessors()) + queueCapacity;
+    }
+
+    private static Result drive(HttpClient httpClient, ExecutorService clients, HttpRequest request,
+                                int clientCount, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        LongAdder errors = new LongAdder();
+
+        List<Future<long[]>> workers = new ArrayList<>(clientCount);
+        for (int i = 0; i < clientCount; i++) {
+            workers.add(clients.submit(() -> {
+                LongStream.Builder latencies = LongStream.builder();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    latencies.add(System.nanoTime() - start);
+                    if (response.statusCode() >= 300) {
+                        errors.increment();
+                    }
+                }
+                return latencies.build().toArray();
+            }));
+        }
+
+        List<long[]> latencies = new ArrayList<>(workers.size());
+        for (Future<long[]> worker : workers) {
+            latencies.add(worker.get());
+        }
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(all);
+        return new Result(all, errors.sum(), duration);
+    }
+
+    private static HttpRequest get(String uri, String token) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header(AUTHORIZATION, "Bearer " + token)
+                .header("Accept", APPLICATION_JSON_VALUE)
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest post(String uri, String json) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private record Result(long[] latencies, long errors, Duration duration) {
+
+        double throughput() {
+            return latencies.length / (duration.toNanos() / 1e9);
+        }
+
+        double percentileMillis(int percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}